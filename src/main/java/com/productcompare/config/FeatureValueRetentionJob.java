@@ -0,0 +1,41 @@
+package com.productcompare.config;
+
+import com.productcompare.service.FeatureValueRetentionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Walks the whole feature value history once per run, pruning it chunk by chunk so no transaction holds more
+ * than one chunk of row locks. Does nothing until a retention rule is configured.
+ */
+@Component
+public class FeatureValueRetentionJob {
+    private static final Logger log = LoggerFactory.getLogger(FeatureValueRetentionJob.class);
+
+    private final FeatureValueRetentionService retentionService;
+
+    public FeatureValueRetentionJob(FeatureValueRetentionService retentionService) {
+        this.retentionService = retentionService;
+    }
+
+    @Scheduled(cron = "${productcompare.history-retention.cron:0 30 3 * * *}")
+    public void run() {
+        if (!retentionService.isEnabled()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int chunks = 0;
+        Long cursor = 0L;
+        while ((cursor = retentionService.pruneChunk(cursor, now)) != null) {
+            chunks++;
+        }
+
+        if (chunks > 0) {
+            log.info("Pruned feature value history in {} chunks", chunks);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.productcompare.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Makes sure feature_value has its unique (product_id, feature_id, version) index. The schema update cannot add
+ * it to a table that still holds duplicate versions, which concurrent writes used to create, and only logs the
+ * failure. This runner first renumbers the versions of every cell with duplicates, keeping their order and the
+ * cell's lowest version, raises the cell's latest_feature_value counter to match, and then creates the index.
+ * Any failure stops the application rather than leaving the table unprotected. Runs after
+ * {@link ProductBestPriceBackfill}.
+ */
+@Component
+@Order(5)
+public class FeatureValueVersionIndexInitializer implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(FeatureValueVersionIndexInitializer.class);
+
+    static final String INDEX_NAME = "uk_feature_value_product_feature_version";
+
+    private static final String RENUMBER_DUPLICATE_VERSIONS = """
+            update feature_value v
+            join (
+                select id,
+                       min(version) over (partition by product_id, feature_id)
+                           + row_number() over (partition by product_id, feature_id order by version, updated_at, id)
+                           - 1 as renumbered
+                from feature_value
+                where (product_id, feature_id) in (
+                    select product_id, feature_id
+                    from feature_value
+                    group by product_id, feature_id, version
+                    having count(*) > 1
+                )
+            ) r on r.id = v.id
+            set v.version = r.renumbered
+            where v.version <> r.renumbered
+            """;
+
+    private static final String RAISE_VERSION_COUNTERS = """
+            update latest_feature_value l
+            join (
+                select product_id, feature_id, max(version) as version
+                from feature_value
+                group by product_id, feature_id
+            ) m on m.product_id = l.product_id and m.feature_id = l.feature_id
+            set l.version = m.version
+            where l.version < m.version
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public FeatureValueVersionIndexInitializer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(String... args) {
+        try {
+            Integer nonUnique = jdbcTemplate.queryForObject("""
+                    select min(non_unique) from information_schema.statistics
+                    where table_schema = database() and table_name = 'feature_value' and index_name = ?
+                    """, Integer.class, INDEX_NAME);
+            if (nonUnique != null && nonUnique == 0) {
+                return;
+            }
+            if (nonUnique != null) {
+                throw new IllegalStateException("Index " + INDEX_NAME + " exists but is not unique");
+            }
+
+            int[] fixed = transactionTemplate.execute(status -> new int[] {
+                    jdbcTemplate.update(RENUMBER_DUPLICATE_VERSIONS),
+                    jdbcTemplate.update(RAISE_VERSION_COUNTERS)
+            });
+            if (fixed[0] > 0) {
+                log.info("Renumbered {} duplicate feature value versions and raised {} version counters", fixed[0], fixed[1]);
+            }
+
+            // DDL commits on its own in MySQL, so it stays outside the transaction above.
+            jdbcTemplate.execute("alter table feature_value add constraint " + INDEX_NAME
+                    + " unique (product_id, feature_id, version)");
+            log.info("Created unique index {}", INDEX_NAME);
+        } catch (DataAccessException exception) {
+            throw new IllegalStateException("Could not create unique index " + INDEX_NAME + " on feature_value", exception);
+        }
+    }
+}
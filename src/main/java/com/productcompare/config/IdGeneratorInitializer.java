@@ -0,0 +1,67 @@
+package com.productcompare.config;
+
+import com.productcompare.entity.IdAllocation;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves each table-backed id generator past the ids its table already holds, so rows created while the
+ * entities still used AUTO_INCREMENT keep their ids and new ones never collide with them.
+ * Runs while the context starts, after Hibernate has created the generator table and before any runner
+ * or request can insert.
+ */
+@Component
+public class IdGeneratorInitializer implements InitializingBean {
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorInitializer.class);
+
+    /**
+     * Generator rows and the tables they hand out ids for. The generator row is named after its table.
+     */
+    private static final List<String> TABLES = List.of("product", "feature", "feature_value", "store_price");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The factory is only injected so the schema update has run before this bean initializes.
+    public IdGeneratorInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        for (String table : TABLES) {
+            Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+            if (maxId == null) {
+                continue;
+            }
+            // The pooled optimizer reads the stored value as the top of its next block of ALLOCATION_SIZE ids.
+            long floor = maxId + IdAllocation.ALLOCATION_SIZE;
+            int updated = jdbcTemplate.update(
+                    "update " + IdAllocation.TABLE + " set " + IdAllocation.VALUE_COLUMN + " = ? where "
+                            + IdAllocation.NAME_COLUMN + " = ? and " + IdAllocation.VALUE_COLUMN + " < ?",
+                    floor, table, floor
+            );
+            Integer rows = jdbcTemplate.queryForObject(
+                    "select count(*) from " + IdAllocation.TABLE + " where " + IdAllocation.NAME_COLUMN + " = ?",
+                    Integer.class,
+                    table
+            );
+            if (rows == null || rows == 0) {
+                jdbcTemplate.update(
+                        "insert into " + IdAllocation.TABLE + " (" + IdAllocation.NAME_COLUMN + ", "
+                                + IdAllocation.VALUE_COLUMN + ") values (?, ?)",
+                        table, floor
+                );
+                updated = 1;
+            }
+            if (updated > 0) {
+                log.info("Moved the {} id generator to {} past existing id {}", table, floor, maxId);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.productcompare.config;
+
+import com.productcompare.entity.UserWorkspace;
+import com.productcompare.repository.UserWorkspaceRepository;
+import com.productcompare.service.ProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the latest_feature_value projection for cells written before it existed
+ * (or inserted directly, like the demo seed data). Runs after {@link StartupDataSeeder}.
+ */
+@Component
+@Order(2)
+public class LatestFeatureValueBackfill implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(LatestFeatureValueBackfill.class);
+
+    private final UserWorkspaceRepository userWorkspaceRepository;
+    private final ProductService productService;
+
+    public LatestFeatureValueBackfill(UserWorkspaceRepository userWorkspaceRepository, ProductService productService) {
+        this.userWorkspaceRepository = userWorkspaceRepository;
+        this.productService = productService;
+    }
+
+    @Override
+    public void run(String... args) {
+        int backfilled = 0;
+        for (UserWorkspace workspace : userWorkspaceRepository.findAll()) {
+            backfilled += productService.backfillLatestFeatureValues(workspace.getId());
+        }
+        if (backfilled > 0) {
+            log.info("Backfilled {} latest feature value rows", backfilled);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.productcompare.config;
+
+import com.productcompare.service.ProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Normalizes the numeric columns of feature values stored before they existed, or before units were
+ * normalized, one batch per transaction. Runs after {@link LatestFeatureValueBackfill}.
+ */
+@Component
+@Order(3)
+public class NumericValueBackfill implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(NumericValueBackfill.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final ProductService productService;
+
+    public NumericValueBackfill(ProductService productService) {
+        this.productService = productService;
+    }
+
+    @Override
+    public void run(String... args) {
+        int batches = 0;
+        Long cursor = 0L;
+        while ((cursor = productService.backfillFeatureValueNumbers(cursor, BATCH_SIZE)) != null) {
+            batches++;
+        }
+
+        cursor = 0L;
+        while ((cursor = productService.backfillLatestFeatureValueNumbers(cursor, BATCH_SIZE)) != null) {
+            batches++;
+        }
+
+        if (batches > 0) {
+            log.info("Backfilled numeric feature values in {} batches", batches);
+        }
+    }
+}
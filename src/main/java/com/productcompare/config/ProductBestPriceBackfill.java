@@ -0,0 +1,38 @@
+package com.productcompare.config;
+
+import com.productcompare.service.ProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the product_best_price rows of products whose store prices were saved before the table existed
+ * (or inserted directly, like the demo seed data), one batch per transaction. Runs after {@link NumericValueBackfill}.
+ */
+@Component
+@Order(4)
+public class ProductBestPriceBackfill implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(ProductBestPriceBackfill.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final ProductService productService;
+
+    public ProductBestPriceBackfill(ProductService productService) {
+        this.productService = productService;
+    }
+
+    @Override
+    public void run(String... args) {
+        int batches = 0;
+        Long cursor = 0L;
+        while ((cursor = productService.backfillProductBestPrices(cursor, BATCH_SIZE)) != null) {
+            batches++;
+        }
+
+        if (batches > 0) {
+            log.info("Backfilled product best prices in {} batches", batches);
+        }
+    }
+}
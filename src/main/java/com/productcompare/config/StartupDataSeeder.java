@@ -9,6 +9,7 @@ import com.productcompare.repository.FeatureValueRepository;
 import com.productcompare.repository.ProductRepository;
 import com.productcompare.repository.UserWorkspaceRepository;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -19,6 +20,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
+@Order(1)
 public class StartupDataSeeder implements CommandLineRunner {
 
     private final UserWorkspaceRepository userWorkspaceRepository;
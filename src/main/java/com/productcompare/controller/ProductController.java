@@ -3,11 +3,23 @@ package com.productcompare.controller;
 import com.productcompare.dto.*;
 import com.productcompare.entity.UserWorkspace;
 import com.productcompare.service.AuthService;
+import com.productcompare.service.ComparisonStreamWriter;
+import com.productcompare.service.ProductImportService;
+import com.productcompare.service.ProductRankingService;
 import com.productcompare.service.ProductService;
+import com.productcompare.service.ProductSkylineService;
+import com.productcompare.service.SimilarProductService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -15,13 +27,32 @@ import java.util.List;
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:5174"})
 public class ProductController {
     private static final Logger log = LoggerFactory.getLogger(ProductController.class);
+    private static final String REVISION_HEADER = "X-Workspace-Revision";
 
     private final ProductService productService;
     private final AuthService authService;
+    private final ComparisonStreamWriter comparisonStreamWriter;
+    private final ProductRankingService productRankingService;
+    private final ProductSkylineService productSkylineService;
+    private final SimilarProductService similarProductService;
+    private final ProductImportService productImportService;
 
-    public ProductController(ProductService productService, AuthService authService) {
+    public ProductController(
+            ProductService productService,
+            AuthService authService,
+            ComparisonStreamWriter comparisonStreamWriter,
+            ProductRankingService productRankingService,
+            ProductSkylineService productSkylineService,
+            SimilarProductService similarProductService,
+            ProductImportService productImportService
+    ) {
         this.productService = productService;
         this.authService = authService;
+        this.comparisonStreamWriter = comparisonStreamWriter;
+        this.productRankingService = productRankingService;
+        this.productSkylineService = productSkylineService;
+        this.similarProductService = similarProductService;
+        this.productImportService = productImportService;
     }
 
     @GetMapping("/health")
@@ -34,21 +65,45 @@ public class ProductController {
         return productService.addProduct(authenticatedWorkspace(token), request);
     }
 
+    @PostMapping(value = "/products/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ProductImportResponse importProducts(
+            @RequestHeader("X-Auth-Token") String token,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body
+    ) throws IOException {
+        return productImportService.importProducts(authenticatedWorkspace(token), MediaType.parseMediaType(contentType), body);
+    }
+
     @GetMapping("/products")
-    public List<?> getAllProducts(@RequestHeader(value = "X-Auth-Token", required = false) String token) {
+    public List<?> getAllProducts(
+            @RequestHeader(value = "X-Auth-Token", required = false) String token,
+            WebRequest webRequest
+    ) {
         boolean publicRequest = token == null || token.isBlank();
         log.info("GET /api/products called (publicRequest={})", publicRequest);
         try {
             if (publicRequest) {
                 return productService.getAllProducts();
             }
-            return productService.getAllProducts(authenticatedWorkspace(token));
+            UserWorkspace workspace = authenticatedWorkspace(token);
+            if (webRequest.checkNotModified(workspaceETag(workspace))) {
+                return null;
+            }
+            return productService.getAllProducts(workspace);
         } catch (Exception exception) {
             log.error("GET /api/products failed (publicRequest={})", publicRequest, exception);
             throw exception;
         }
     }
 
+    @GetMapping("/products/best-prices")
+    public List<BestPriceResponse> getBestPrices(
+            @RequestHeader("X-Auth-Token") String token,
+            @RequestParam("ids") List<Long> ids
+    ) {
+        return productService.getBestPrices(authenticatedWorkspace(token), ids);
+    }
+
     @GetMapping("/products/{productId}")
     public ProductDetailsResponse getProductById(
             @RequestHeader("X-Auth-Token") String token,
@@ -57,6 +112,15 @@ public class ProductController {
         return productService.getProductById(authenticatedWorkspace(token), productId);
     }
 
+    @GetMapping("/products/{productId}/similar")
+    public List<SimilarProductResponse> getSimilarProducts(
+            @RequestHeader("X-Auth-Token") String token,
+            @PathVariable Long productId,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        return similarProductService.getSimilarProducts(authenticatedWorkspace(token), productId, limit);
+    }
+
     @PutMapping("/products/{productId}")
     public ItemResponse updateProduct(
             @RequestHeader("X-Auth-Token") String token,
@@ -83,9 +147,14 @@ public class ProductController {
     @GetMapping("/products/{id}/stores")
     public List<StorePriceResponse> getStorePrices(
             @RequestHeader("X-Auth-Token") String token,
-            @PathVariable Long id
+            @PathVariable Long id,
+            WebRequest webRequest
     ) {
-        return productService.getStorePrices(authenticatedWorkspace(token), id);
+        UserWorkspace workspace = authenticatedWorkspace(token);
+        if (webRequest.checkNotModified(revisionETag(id, productService.getProductRevision(workspace, id)))) {
+            return null;
+        }
+        return productService.getStorePrices(workspace, id);
     }
 
     @PutMapping("/products/{productId}/stores/{storePriceId}")
@@ -160,6 +229,14 @@ public class ProductController {
         );
     }
 
+    @PutMapping("/products/feature-values")
+    public List<FeatureValueResponse> updateFeatureValues(
+            @RequestHeader("X-Auth-Token") String token,
+            @RequestBody(required = false) List<FeatureValueUpdateRequest> updates
+    ) {
+        return productService.updateFeatureValues(authenticatedWorkspace(token), updates);
+    }
+
     @GetMapping("/products/{productId}/features/{featureId}/history")
     public List<FeatureValueHistoryResponse> getFeatureValueHistory(
             @RequestHeader("X-Auth-Token") String token,
@@ -169,6 +246,17 @@ public class ProductController {
         return productService.getFeatureValueHistory(authenticatedWorkspace(token), productId, featureId);
     }
 
+    @GetMapping(value = "/products/{productId}/features/{featureId}/history", params = "limit")
+    public FeatureValueHistoryPageResponse getFeatureValueHistoryPage(
+            @RequestHeader("X-Auth-Token") String token,
+            @PathVariable Long productId,
+            @PathVariable Long featureId,
+            @RequestParam Integer limit,
+            @RequestParam(required = false) Integer beforeVersion
+    ) {
+        return productService.getFeatureValueHistoryPage(authenticatedWorkspace(token), productId, featureId, limit, beforeVersion);
+    }
+
     @DeleteMapping("/products/{productId}/features/{featureId}/value")
     public void deleteFeatureValueHistory(
             @RequestHeader("X-Auth-Token") String token,
@@ -179,8 +267,46 @@ public class ProductController {
     }
 
     @GetMapping("/comparison")
-    public ComparisonResponse getComparison(@RequestHeader("X-Auth-Token") String token) {
-        return productService.getComparison(authenticatedWorkspace(token));
+    public ResponseEntity<?> getComparison(
+            @RequestHeader("X-Auth-Token") String token,
+            @ModelAttribute ComparisonWindowRequest window,
+            WebRequest webRequest
+    ) {
+        UserWorkspace workspace = authenticatedWorkspace(token);
+        long revision = productService.getWorkspaceRevision(workspace);
+        if (webRequest.checkNotModified(revisionETag(workspace.getId(), revision))) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().header(REVISION_HEADER, String.valueOf(revision));
+        if (window.isWindowed()) {
+            return response.body(productService.getComparisonSlice(workspace, window));
+        }
+        return response.body(productService.getComparison(workspace));
+    }
+
+    @GetMapping("/comparison/changes")
+    public ComparisonChangesResponse getComparisonChanges(
+            @RequestHeader("X-Auth-Token") String token,
+            @RequestParam("since") long since
+    ) {
+        return productService.getComparisonChanges(authenticatedWorkspace(token), since);
+    }
+
+    @GetMapping(value = "/comparison", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamComparison(
+            @RequestHeader("X-Auth-Token") String token,
+            WebRequest webRequest
+    ) {
+        UserWorkspace workspace = authenticatedWorkspace(token);
+        long revision = productService.getWorkspaceRevision(workspace);
+        if (webRequest.checkNotModified(revisionETag(workspace.getId(), revision))) {
+            return null;
+        }
+        StreamingResponseBody body = outputStream -> comparisonStreamWriter.write(workspace, outputStream);
+        return ResponseEntity.ok()
+                .header(REVISION_HEADER, String.valueOf(revision))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
     @GetMapping("/compare/recommendation")
@@ -192,6 +318,23 @@ public class ProductController {
         return productService.getRecommendation(authenticatedWorkspace(token), productA, productB);
     }
 
+    @GetMapping("/compare/ranking")
+    public List<RankedProductResponse> getRanking(
+            @RequestHeader("X-Auth-Token") String token,
+            @RequestParam(value = "top", required = false) Integer top
+    ) {
+        return productRankingService.rankProducts(authenticatedWorkspace(token), top);
+    }
+
+    @GetMapping("/compare/skyline")
+    public SkylineResponse getSkyline(
+            @RequestHeader("X-Auth-Token") String token,
+            @RequestParam(value = "featureIds", required = false) List<Long> featureIds,
+            @RequestParam(value = "includeBestPrice", defaultValue = "false") boolean includeBestPrice
+    ) {
+        return productSkylineService.getSkyline(authenticatedWorkspace(token), featureIds, includeBestPrice);
+    }
+
     @GetMapping("/compare")
     public ComparisonResponse compareProducts(
             @RequestParam("p1") Long p1,
@@ -206,7 +349,30 @@ public class ProductController {
         }
     }
 
+    @GetMapping(value = "/compare", params = "ids")
+    public ComparisonResponse compareManyProducts(@RequestParam("ids") List<Long> ids) {
+        log.info("GET /api/compare called with ids={}", ids);
+        try {
+            return productService.compareProducts(ids);
+        } catch (Exception exception) {
+            log.error("GET /api/compare failed for ids={}", ids, exception);
+            throw exception;
+        }
+    }
+
     private UserWorkspace authenticatedWorkspace(String token) {
         return authService.getWorkspaceByToken(token);
     }
+
+    private String workspaceETag(UserWorkspace workspace) {
+        return revisionETag(workspace.getId(), productService.getWorkspaceRevision(workspace));
+    }
+
+    /**
+     * Every write bumps the owning revision, so an id and revision pair identifies the response body;
+     * a matching If-None-Match is answered with 304 before any product or feature data is read.
+     */
+    private static String revisionETag(Long id, long revision) {
+        return "\"" + id + "-" + revision + "\"";
+    }
 }
@@ -0,0 +1,11 @@
+package com.productcompare.dto;
+
+import java.math.BigDecimal;
+
+public record BestPriceResponse(
+        Long productId,
+        BigDecimal price,
+        String storeName,
+        int storeCount
+) {
+}
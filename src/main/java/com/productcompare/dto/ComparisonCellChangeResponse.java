@@ -0,0 +1,10 @@
+package com.productcompare.dto;
+
+public record ComparisonCellChangeResponse(
+        Long productId,
+        Long featureId,
+        String value,
+        boolean changed,
+        String trend
+) {
+}
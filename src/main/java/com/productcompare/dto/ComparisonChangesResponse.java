@@ -0,0 +1,21 @@
+package com.productcompare.dto;
+
+import java.util.List;
+
+/**
+ * Changes to the comparison grid after a client-supplied revision. When {@code snapshotRequired} is set
+ * the log no longer covers that revision and the client has to reload the full comparison.
+ */
+public record ComparisonChangesResponse(
+        long revision,
+        boolean snapshotRequired,
+        List<ItemResponse> products,
+        List<ItemResponse> features,
+        List<Long> removedProductIds,
+        List<Long> removedFeatureIds,
+        List<ComparisonCellChangeResponse> cells
+) {
+    public static ComparisonChangesResponse snapshotRequired(long revision) {
+        return new ComparisonChangesResponse(revision, true, List.of(), List.of(), List.of(), List.of(), List.of());
+    }
+}
@@ -0,0 +1,12 @@
+package com.productcompare.dto;
+
+import java.util.List;
+
+public record ComparisonSliceResponse(
+        List<ItemResponse> products,
+        List<ItemResponse> features,
+        List<ComparisonRowResponse> rows,
+        String nextProductCursor,
+        String nextFeatureCursor
+) {
+}
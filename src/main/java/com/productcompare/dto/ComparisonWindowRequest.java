@@ -0,0 +1,91 @@
+package com.productcompare.dto;
+
+import java.util.List;
+
+public class ComparisonWindowRequest {
+    private List<Long> productIds;
+    private String productCursor;
+    private Integer productLimit;
+    private List<Long> featureIds;
+    private String featureCursor;
+    private Integer featureLimit;
+
+    public ComparisonWindowRequest() {
+    }
+
+    public ComparisonWindowRequest(
+            List<Long> productIds,
+            String productCursor,
+            Integer productLimit,
+            List<Long> featureIds,
+            String featureCursor,
+            Integer featureLimit
+    ) {
+        this.productIds = productIds;
+        this.productCursor = productCursor;
+        this.productLimit = productLimit;
+        this.featureIds = featureIds;
+        this.featureCursor = featureCursor;
+        this.featureLimit = featureLimit;
+    }
+
+    public boolean isWindowed() {
+        return hasProductWindow() || hasFeatureWindow();
+    }
+
+    public boolean hasProductWindow() {
+        return productIds != null || productCursor != null || productLimit != null;
+    }
+
+    public boolean hasFeatureWindow() {
+        return featureIds != null || featureCursor != null || featureLimit != null;
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+
+    public void setProductIds(List<Long> productIds) {
+        this.productIds = productIds;
+    }
+
+    public String getProductCursor() {
+        return productCursor;
+    }
+
+    public void setProductCursor(String productCursor) {
+        this.productCursor = productCursor;
+    }
+
+    public Integer getProductLimit() {
+        return productLimit;
+    }
+
+    public void setProductLimit(Integer productLimit) {
+        this.productLimit = productLimit;
+    }
+
+    public List<Long> getFeatureIds() {
+        return featureIds;
+    }
+
+    public void setFeatureIds(List<Long> featureIds) {
+        this.featureIds = featureIds;
+    }
+
+    public String getFeatureCursor() {
+        return featureCursor;
+    }
+
+    public void setFeatureCursor(String featureCursor) {
+        this.featureCursor = featureCursor;
+    }
+
+    public Integer getFeatureLimit() {
+        return featureLimit;
+    }
+
+    public void setFeatureLimit(Integer featureLimit) {
+        this.featureLimit = featureLimit;
+    }
+}
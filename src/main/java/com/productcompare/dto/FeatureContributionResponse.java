@@ -0,0 +1,9 @@
+package com.productcompare.dto;
+
+public record FeatureContributionResponse(
+        Long featureId,
+        String featureName,
+        Double value,
+        double contribution
+) {
+}
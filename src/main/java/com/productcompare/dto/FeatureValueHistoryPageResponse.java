@@ -0,0 +1,13 @@
+package com.productcompare.dto;
+
+import java.util.List;
+
+/**
+ * One page of a cell's history, newest first. Pass {@code nextBeforeVersion} back as {@code beforeVersion}
+ * for the next page; it is null on the last page.
+ */
+public record FeatureValueHistoryPageResponse(
+        List<FeatureValueHistoryResponse> versions,
+        Integer nextBeforeVersion
+) {
+}
@@ -0,0 +1,4 @@
+package com.productcompare.dto;
+
+public record FeatureValueUpdateRequest(Long productId, Long featureId, String value) {
+}
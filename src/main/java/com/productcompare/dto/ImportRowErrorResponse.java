@@ -0,0 +1,10 @@
+package com.productcompare.dto;
+
+/**
+ * A rejected import row. {@code row} counts data rows from 1, not counting a CSV header.
+ */
+public record ImportRowErrorResponse(
+        long row,
+        String message
+) {
+}
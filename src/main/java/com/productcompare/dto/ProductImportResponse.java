@@ -0,0 +1,15 @@
+package com.productcompare.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code errors} lists at most the first 1000 rejected rows;
+ * {@code failedRows} counts all of them.
+ */
+public record ProductImportResponse(
+        int importedProducts,
+        int importedValues,
+        int failedRows,
+        List<ImportRowErrorResponse> errors
+) {
+}
@@ -0,0 +1,12 @@
+package com.productcompare.dto;
+
+import java.util.List;
+
+public record RankedProductResponse(
+        int rank,
+        Long productId,
+        String productName,
+        double score,
+        List<FeatureContributionResponse> contributions
+) {
+}
@@ -0,0 +1,8 @@
+package com.productcompare.dto;
+
+public record SimilarProductResponse(
+        Long productId,
+        String productName,
+        double similarity
+) {
+}
@@ -0,0 +1,10 @@
+package com.productcompare.dto;
+
+import java.util.List;
+
+public record SkylineProductResponse(
+        Long productId,
+        String productName,
+        List<Double> values
+) {
+}
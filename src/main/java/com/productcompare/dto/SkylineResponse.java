@@ -0,0 +1,15 @@
+package com.productcompare.dto;
+
+import java.util.List;
+
+/**
+ * Products no other product beats on every criterion. {@code values} of each product line up with {@code criteria};
+ * products missing a value for any criterion are not ranked and only counted in {@code skippedProducts}.
+ */
+public record SkylineResponse(
+        List<String> criteria,
+        List<SkylineProductResponse> products,
+        int comparedProducts,
+        int skippedProducts
+) {
+}
@@ -7,7 +7,15 @@ import jakarta.persistence.*;
 public class Feature {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "feature_id")
+    @TableGenerator(
+            name = "feature_id",
+            table = IdAllocation.TABLE,
+            pkColumnName = IdAllocation.NAME_COLUMN,
+            valueColumnName = IdAllocation.VALUE_COLUMN,
+            pkColumnValue = "feature",
+            allocationSize = IdAllocation.ALLOCATION_SIZE
+    )
     private Long id;
 
     @Column(nullable = false)
@@ -4,14 +4,26 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "feature_value", indexes = {
-    @Index(name = "idx_feature_value_product_feature", columnList = "product_id,feature_id"),
-    @Index(name = "idx_feature_value_updated_at", columnList = "updated_at")
-})
+@Table(
+    name = "feature_value",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_feature_value_product_feature_version",
+        columnNames = {"product_id", "feature_id", "version"}
+    ),
+    indexes = @Index(name = "idx_feature_value_updated_at", columnList = "updated_at")
+)
 public class FeatureValue {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "feature_value_id")
+    @TableGenerator(
+            name = "feature_value_id",
+            table = IdAllocation.TABLE,
+            pkColumnName = IdAllocation.NAME_COLUMN,
+            valueColumnName = IdAllocation.VALUE_COLUMN,
+            pkColumnValue = "feature_value",
+            allocationSize = IdAllocation.ALLOCATION_SIZE
+    )
     private Long id;
 
     @ManyToOne
@@ -31,6 +43,16 @@ public class FeatureValue {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    @Column(name = "numeric_value")
+    private Double numericValue;
+
+    @Column(name = "numeric_unit", length = 16)
+    private String numericUnit;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "numeric_status", length = 16)
+    private NumericParseStatus numericStatus;
+
     public FeatureValue() {
     }
 
@@ -90,4 +112,28 @@ public class FeatureValue {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Double getNumericValue() {
+        return numericValue;
+    }
+
+    public void setNumericValue(Double numericValue) {
+        this.numericValue = numericValue;
+    }
+
+    public String getNumericUnit() {
+        return numericUnit;
+    }
+
+    public void setNumericUnit(String numericUnit) {
+        this.numericUnit = numericUnit;
+    }
+
+    public NumericParseStatus getNumericStatus() {
+        return numericStatus;
+    }
+
+    public void setNumericStatus(NumericParseStatus numericStatus) {
+        this.numericStatus = numericStatus;
+    }
 }
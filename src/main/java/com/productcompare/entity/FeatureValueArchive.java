@@ -0,0 +1,97 @@
+package com.productcompare.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One chunk of feature value versions removed by the history retention job. The rows are kept as gzip-compressed
+ * NDJSON, one object per version with its id, product, feature, version, value and update time, so a chunk of
+ * similar values shrinks to a fraction of its LONGTEXT size and can still be restored by hand.
+ */
+@Entity
+@Table(name = "feature_value_archive")
+public class FeatureValueArchive {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    @Column(name = "first_value_id", nullable = false)
+    private Long firstValueId;
+
+    @Column(name = "last_value_id", nullable = false)
+    private Long lastValueId;
+
+    @Column(name = "row_count", nullable = false)
+    private int rowCount;
+
+    @Column(name = "original_bytes", nullable = false)
+    private long originalBytes;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] payload;
+
+    public FeatureValueArchive() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+
+    public Long getFirstValueId() {
+        return firstValueId;
+    }
+
+    public void setFirstValueId(Long firstValueId) {
+        this.firstValueId = firstValueId;
+    }
+
+    public Long getLastValueId() {
+        return lastValueId;
+    }
+
+    public void setLastValueId(Long lastValueId) {
+        this.lastValueId = lastValueId;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public long getOriginalBytes() {
+        return originalBytes;
+    }
+
+    public void setOriginalBytes(long originalBytes) {
+        this.originalBytes = originalBytes;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+}
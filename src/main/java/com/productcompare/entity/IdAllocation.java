@@ -0,0 +1,21 @@
+package com.productcompare.entity;
+
+/**
+ * Shared settings of the table-backed id generators used by the high-volume entities. Each entity has its own
+ * row in {@link #TABLE}, and Hibernate's pooled optimizer reserves {@link #ALLOCATION_SIZE} ids per round trip,
+ * so inserts no longer wait for an identity value and can be sent as JDBC batches.
+ */
+public final class IdAllocation {
+
+    public static final String TABLE = "id_generator";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+
+    /**
+     * Matches {@code hibernate.jdbc.batch_size}, so one reserved block covers one insert batch.
+     */
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdAllocation() {
+    }
+}
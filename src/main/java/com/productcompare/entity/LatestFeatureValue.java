@@ -0,0 +1,170 @@
+package com.productcompare.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+        name = "latest_feature_value",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "feature_id"}),
+        indexes = {
+                @Index(name = "idx_latest_feature_value_workspace", columnList = "workspace_id"),
+                @Index(name = "idx_latest_feature_value_feature", columnList = "feature_id")
+        }
+)
+public class LatestFeatureValue {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "workspace_id", nullable = false)
+    private Long workspaceId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "feature_id", nullable = false)
+    private Long featureId;
+
+    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    private String value;
+
+    @Column(name = "previous_value", columnDefinition = "LONGTEXT")
+    private String previousValue;
+
+    @Column(nullable = false)
+    private int version;
+
+    @Column(nullable = false)
+    private boolean changed;
+
+    @Column(nullable = false, length = 8)
+    private String trend;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "numeric_value")
+    private Double numericValue;
+
+    @Column(name = "numeric_unit", length = 16)
+    private String numericUnit;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "numeric_status", length = 16)
+    private NumericParseStatus numericStatus;
+
+    public LatestFeatureValue() {
+    }
+
+    public LatestFeatureValue(Long workspaceId, Long productId, Long featureId) {
+        this.workspaceId = workspaceId;
+        this.productId = productId;
+        this.featureId = featureId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public void setWorkspaceId(Long workspaceId) {
+        this.workspaceId = workspaceId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getFeatureId() {
+        return featureId;
+    }
+
+    public void setFeatureId(Long featureId) {
+        this.featureId = featureId;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public String getPreviousValue() {
+        return previousValue;
+    }
+
+    public void setPreviousValue(String previousValue) {
+        this.previousValue = previousValue;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public boolean isChanged() {
+        return changed;
+    }
+
+    public void setChanged(boolean changed) {
+        this.changed = changed;
+    }
+
+    public String getTrend() {
+        return trend;
+    }
+
+    public void setTrend(String trend) {
+        this.trend = trend;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Double getNumericValue() {
+        return numericValue;
+    }
+
+    public void setNumericValue(Double numericValue) {
+        this.numericValue = numericValue;
+    }
+
+    public String getNumericUnit() {
+        return numericUnit;
+    }
+
+    public void setNumericUnit(String numericUnit) {
+        this.numericUnit = numericUnit;
+    }
+
+    public NumericParseStatus getNumericStatus() {
+        return numericStatus;
+    }
+
+    public void setNumericStatus(NumericParseStatus numericStatus) {
+        this.numericStatus = numericStatus;
+    }
+}
@@ -0,0 +1,10 @@
+package com.productcompare.entity;
+
+public enum NumericParseStatus {
+    /**
+     * Leading number only, written before values were unit-normalized; the backfill re-reads these rows.
+     */
+    PARSED,
+    NORMALIZED,
+    NOT_NUMERIC
+}
@@ -0,0 +1,105 @@
+package com.productcompare.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A change written in the same transaction as the data it describes, waiting for the revision relay to give it a
+ * workspace revision and move it to {@link WorkspaceChange}.
+ */
+@Entity
+@Table(
+        name = "workspace_change_outbox",
+        indexes = @Index(name = "idx_workspace_change_outbox_workspace", columnList = "workspace_id, id")
+)
+public class PendingWorkspaceChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "workspace_id", nullable = false)
+    private Long workspaceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 24)
+    private WorkspaceChangeType type;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "feature_id")
+    private Long featureId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public PendingWorkspaceChange() {
+    }
+
+    public PendingWorkspaceChange(WorkspaceChange change, LocalDateTime createdAt) {
+        this.workspaceId = change.getWorkspaceId();
+        this.type = change.getType();
+        this.productId = change.getProductId();
+        this.featureId = change.getFeatureId();
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * The change as it is logged under {@code revision}.
+     */
+    public WorkspaceChange toChange(long revision) {
+        WorkspaceChange change = new WorkspaceChange(workspaceId, type, productId, featureId);
+        change.setRevision(revision);
+        change.setCreatedAt(createdAt);
+        return change;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public void setWorkspaceId(Long workspaceId) {
+        this.workspaceId = workspaceId;
+    }
+
+    public WorkspaceChangeType getType() {
+        return type;
+    }
+
+    public void setType(WorkspaceChangeType type) {
+        this.type = type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getFeatureId() {
+        return featureId;
+    }
+
+    public void setFeatureId(Long featureId) {
+        this.featureId = featureId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -8,7 +8,15 @@ import java.math.BigDecimal;
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "product_id")
+    @TableGenerator(
+            name = "product_id",
+            table = IdAllocation.TABLE,
+            pkColumnName = IdAllocation.NAME_COLUMN,
+            valueColumnName = IdAllocation.VALUE_COLUMN,
+            pkColumnValue = "product",
+            allocationSize = IdAllocation.ALLOCATION_SIZE
+    )
     private Long id;
 
     @Column(nullable = false)
@@ -27,6 +35,9 @@ public class Product {
     @JoinColumn(name = "workspace_id", nullable = false)
     private UserWorkspace workspace;
 
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private long revision;
+
     public Product() {
     }
 
@@ -91,4 +102,12 @@ public class Product {
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
 }
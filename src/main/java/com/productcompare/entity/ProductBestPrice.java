@@ -0,0 +1,84 @@
+package com.productcompare.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Cheapest store offer and store count of a product, kept in step with its store_price rows by the
+ * store price writes so readers never aggregate store rows. Ties on price go to the store name that sorts first.
+ */
+@Entity
+@Table(
+        name = "product_best_price",
+        indexes = @Index(name = "idx_product_best_price_workspace_price", columnList = "workspace_id, price")
+)
+public class ProductBestPrice {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "workspace_id", nullable = false)
+    private Long workspaceId;
+
+    @Column(name = "store_price_id", nullable = false)
+    private Long storePriceId;
+
+    @Column(name = "store_name", nullable = false)
+    private String storeName;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal price;
+
+    @Column(name = "store_count", nullable = false)
+    private int storeCount;
+
+    public ProductBestPrice() {
+    }
+
+    public ProductBestPrice(Long productId, Long workspaceId) {
+        this.productId = productId;
+        this.workspaceId = workspaceId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public Long getStorePriceId() {
+        return storePriceId;
+    }
+
+    public void setStorePriceId(Long storePriceId) {
+        this.storePriceId = storePriceId;
+    }
+
+    public String getStoreName() {
+        return storeName;
+    }
+
+    public void setStoreName(String storeName) {
+        this.storeName = storeName;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public int getStoreCount() {
+        return storeCount;
+    }
+
+    public void setStoreCount(int storeCount) {
+        this.storeCount = storeCount;
+    }
+}
@@ -16,7 +16,15 @@ import java.math.BigDecimal;
 public class StorePrice {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "store_price_id")
+    @TableGenerator(
+            name = "store_price_id",
+            table = IdAllocation.TABLE,
+            pkColumnName = IdAllocation.NAME_COLUMN,
+            valueColumnName = IdAllocation.VALUE_COLUMN,
+            pkColumnValue = "store_price",
+            allocationSize = IdAllocation.ALLOCATION_SIZE
+    )
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -20,6 +20,9 @@ public class UserWorkspace {
     @Column
     private LocalDateTime createdAt;
 
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private long revision;
+
     public UserWorkspace() {
     }
 
@@ -62,4 +65,12 @@ public class UserWorkspace {
         this.createdAt = createdAt;
     }
 
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
 }
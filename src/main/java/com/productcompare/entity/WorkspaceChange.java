@@ -0,0 +1,101 @@
+package com.productcompare.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+        name = "workspace_change",
+        indexes = @Index(name = "idx_workspace_change_revision", columnList = "workspace_id, revision")
+)
+public class WorkspaceChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "workspace_id", nullable = false)
+    private Long workspaceId;
+
+    @Column(nullable = false)
+    private long revision;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 24)
+    private WorkspaceChangeType type;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "feature_id")
+    private Long featureId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public WorkspaceChange() {
+    }
+
+    public WorkspaceChange(Long workspaceId, WorkspaceChangeType type, Long productId, Long featureId) {
+        this.workspaceId = workspaceId;
+        this.type = type;
+        this.productId = productId;
+        this.featureId = featureId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public void setWorkspaceId(Long workspaceId) {
+        this.workspaceId = workspaceId;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public WorkspaceChangeType getType() {
+        return type;
+    }
+
+    public void setType(WorkspaceChangeType type) {
+        this.type = type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getFeatureId() {
+        return featureId;
+    }
+
+    public void setFeatureId(Long featureId) {
+        this.featureId = featureId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
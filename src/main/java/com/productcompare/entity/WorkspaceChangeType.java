@@ -0,0 +1,12 @@
+package com.productcompare.entity;
+
+public enum WorkspaceChangeType {
+    CELL,
+    PRODUCT,
+    PRODUCT_REMOVED,
+    FEATURE,
+    FEATURE_REMOVED,
+    STORE_PRICE,
+    /** Too broad to replay cell by cell, such as a bulk import; readers reload the comparison. */
+    SNAPSHOT
+}
@@ -0,0 +1,158 @@
+package com.productcompare.repository;
+
+import com.productcompare.entity.FeatureValue;
+import com.productcompare.entity.LatestFeatureValue;
+import com.productcompare.entity.NumericParseStatus;
+import com.productcompare.entity.Product;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Plain JDBC batch inserts for bulk writes, where going through the entity manager would mean one
+ * managed entity per row. Runs on the caller's transaction connection. Ids come from the same pooled
+ * generators the entities use, so rows written here and through JPA never collide.
+ * With {@code rewriteBatchedStatements=true} on the MySQL URL each batch becomes a few multi-row inserts.
+ */
+@Repository
+public class CatalogBatchWriter {
+
+    private static final int JDBC_BATCH_SIZE = 1000;
+
+    private static final String INSERT_PRODUCT = """
+            insert into product (id, name, category, price, image_url, workspace_id)
+            values (?, ?, ?, ?, ?, ?)
+            """;
+    private static final String INSERT_FEATURE_VALUE = """
+            insert into feature_value (id, product_id, feature_id, value, version, updated_at, numeric_value, numeric_unit, numeric_status)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String INSERT_LATEST_FEATURE_VALUE = """
+            insert into latest_feature_value (workspace_id, product_id, feature_id, value, previous_value, version, changed,
+                                              trend, updated_at, numeric_value, numeric_unit, numeric_status)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    /**
+     * A version-0 row stands for a cell that has no value yet; the writer that locks it fills it in before commit.
+     * A concurrent writer creating the same cell waits on the unique key and then finds the row already there.
+     */
+    private static final String INSERT_VERSION_COUNTER = """
+            insert into latest_feature_value (workspace_id, product_id, feature_id, value, version, changed, trend, updated_at)
+            values (?, ?, ?, '', 0, false, 'same', ?)
+            on duplicate key update id = id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    public CatalogBatchWriter(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Inserts the products of one workspace and returns their ids in input order.
+     */
+    public List<Long> insertProducts(Long workspaceId, List<Product> products) {
+        List<Long> ids = allocateIds(Product.class, products.size());
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setId(ids.get(i));
+        }
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT, products, JDBC_BATCH_SIZE, (statement, product) -> {
+            statement.setLong(1, product.getId());
+            statement.setString(2, product.getName());
+            statement.setString(3, product.getCategory());
+            statement.setBigDecimal(4, product.getPrice());
+            statement.setString(5, product.getImageUrl());
+            statement.setLong(6, workspaceId);
+        });
+        return ids;
+    }
+
+    public void insertFeatureValues(List<FeatureValueRow> rows) {
+        Iterator<Long> ids = allocateIds(FeatureValue.class, rows.size()).iterator();
+        jdbcTemplate.batchUpdate(INSERT_FEATURE_VALUE, rows, JDBC_BATCH_SIZE, (statement, row) -> {
+            statement.setLong(1, ids.next());
+            statement.setLong(2, row.productId());
+            statement.setLong(3, row.featureId());
+            statement.setString(4, row.value());
+            statement.setInt(5, row.version());
+            statement.setTimestamp(6, Timestamp.valueOf(row.updatedAt()));
+            setNumeric(statement, 7, row.numericValue(), row.numericUnit(), row.numericStatus());
+        });
+    }
+
+    public void insertLatestValues(List<LatestFeatureValue> rows) {
+        jdbcTemplate.batchUpdate(INSERT_LATEST_FEATURE_VALUE, rows, JDBC_BATCH_SIZE, (statement, latest) -> {
+            statement.setLong(1, latest.getWorkspaceId());
+            statement.setLong(2, latest.getProductId());
+            statement.setLong(3, latest.getFeatureId());
+            statement.setString(4, latest.getValue());
+            statement.setString(5, latest.getPreviousValue());
+            statement.setInt(6, latest.getVersion());
+            statement.setBoolean(7, latest.isChanged());
+            statement.setString(8, latest.getTrend());
+            statement.setTimestamp(9, Timestamp.valueOf(latest.getUpdatedAt()));
+            setNumeric(statement, 10, latest.getNumericValue(), latest.getNumericUnit(), latest.getNumericStatus());
+        });
+    }
+
+    /**
+     * Makes sure every cell has a latest_feature_value row to lock, without touching cells that already have one.
+     * The upsert locks each row as it goes, so callers pass the cells in (product, feature) order.
+     */
+    public void insertVersionCounters(Long workspaceId, List<CellKey> cells) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_VERSION_COUNTER, cells, JDBC_BATCH_SIZE, (statement, cell) -> {
+            statement.setLong(1, workspaceId);
+            statement.setLong(2, cell.productId());
+            statement.setLong(3, cell.featureId());
+            statement.setTimestamp(4, now);
+        });
+    }
+
+    /**
+     * Draws ids from the entity's own generator. The pooled optimizer hands most of them out from memory and
+     * only goes to the generator table once per {@link com.productcompare.entity.IdAllocation#ALLOCATION_SIZE} ids.
+     */
+    private List<Long> allocateIds(Class<?> entityType, int count) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) session.getFactory()
+                .getMappingMetamodel()
+                .getEntityDescriptor(entityType)
+                .getGenerator();
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(((Number) generator.generate(session, null)).longValue());
+        }
+        return ids;
+    }
+
+    private static void setNumeric(
+            PreparedStatement statement,
+            int index,
+            Double numericValue,
+            String numericUnit,
+            NumericParseStatus numericStatus
+    ) throws SQLException {
+        if (numericValue == null) {
+            statement.setNull(index, Types.DOUBLE);
+        } else {
+            statement.setDouble(index, numericValue);
+        }
+        statement.setString(index + 1, numericUnit);
+        statement.setString(index + 2, numericStatus == null ? null : numericStatus.name());
+    }
+}
@@ -0,0 +1,7 @@
+package com.productcompare.repository;
+
+/**
+ * One cell of the comparison matrix.
+ */
+public record CellKey(Long productId, Long featureId) {
+}
@@ -1,8 +1,10 @@
 package com.productcompare.repository;
 
 import com.productcompare.entity.Feature;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,4 +12,8 @@ public interface FeatureRepository extends JpaRepository<Feature, Long> {
     List<Feature> findByWorkspaceIdOrderByNameAsc(Long workspaceId);
     Optional<Feature> findByIdAndWorkspaceId(Long id, Long workspaceId);
     Optional<Feature> findByWorkspaceIdAndNameIgnoreCase(Long workspaceId, String name);
+    List<Feature> findByWorkspaceIdOrderByNameAsc(Long workspaceId, Limit limit);
+    List<Feature> findByWorkspaceIdAndNameGreaterThanOrderByNameAsc(Long workspaceId, String name, Limit limit);
+    List<Feature> findByWorkspaceIdAndIdInOrderByNameAsc(Long workspaceId, Collection<Long> ids);
+    List<Feature> findByWorkspaceIdInOrderByNameAsc(Collection<Long> workspaceIds);
 }
@@ -0,0 +1,7 @@
+package com.productcompare.repository;
+
+import com.productcompare.entity.FeatureValueArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface FeatureValueArchiveRepository extends JpaRepository<FeatureValueArchive, Long> {
+}
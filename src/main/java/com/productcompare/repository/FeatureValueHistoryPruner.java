@@ -0,0 +1,68 @@
+package com.productcompare.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDBC side of the feature value history retention job. Candidates are found by walking feature_value in fixed id
+ * windows against each cell's current version in latest_feature_value. Each query scans and locks one primary key
+ * range with both ends bounded, so it never reaches the top of the table where new versions are inserted.
+ */
+@Repository
+public class FeatureValueHistoryPruner {
+
+    private static final String SELECT_PRUNABLE = """
+            select fv.id, fv.product_id, fv.feature_id, fv.version, fv.value, fv.updated_at
+            from feature_value fv
+            join latest_feature_value l on l.product_id = fv.product_id and l.feature_id = fv.feature_id
+            where fv.id > ? and fv.id <= ? and fv.version <= l.version - ? and fv.updated_at < ?
+            order by fv.id
+            for update of fv skip locked
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FeatureValueHistoryPruner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Long findMaxId() {
+        return jdbcTemplate.queryForObject("select max(id) from feature_value", Long.class);
+    }
+
+    /**
+     * Locks and returns the versions with ids in ({@code afterId}, {@code upToId}] that are at least
+     * {@code keepVersions} behind their cell's current version and were written before {@code olderThan}.
+     * Rows another job instance already holds are skipped rather than waited for.
+     */
+    public List<PrunableFeatureValue> findPrunable(Long afterId, Long upToId, int keepVersions, LocalDateTime olderThan) {
+        return jdbcTemplate.query(
+                SELECT_PRUNABLE,
+                (resultSet, row) -> new PrunableFeatureValue(
+                        resultSet.getLong(1),
+                        resultSet.getLong(2),
+                        resultSet.getLong(3),
+                        resultSet.getInt(4),
+                        resultSet.getString(5),
+                        resultSet.getTimestamp(6).toLocalDateTime()
+                ),
+                afterId,
+                upToId,
+                keepVersions,
+                Timestamp.valueOf(olderThan)
+        );
+    }
+
+    public int deleteByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.update("delete from feature_value where id in (" + placeholders + ")", ids.toArray());
+    }
+}
@@ -1,14 +1,76 @@
 package com.productcompare.repository;
 
 import com.productcompare.entity.FeatureValue;
+import com.productcompare.entity.NumericParseStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface FeatureValueRepository extends JpaRepository<FeatureValue, Long> {
 	List<FeatureValue> findTop2ByProductIdAndFeatureIdOrderByVersionDesc(Long productId, Long featureId);
 	List<FeatureValue> findByProductIdAndFeatureIdOrderByVersionDesc(Long productId, Long featureId);
+	/**
+	 * Versions of one cell from {@code fromVersion} down, newest first. Seeks on the
+	 * (product_id, feature_id, version) unique index, so deep pages cost the same as the first.
+	 */
+	@Query("""
+			select v.product.id as productId, v.feature.id as featureId, v.value as value,
+			       v.version as version, v.updatedAt as updatedAt
+			from FeatureValue v
+			where v.product.id = :productId and v.feature.id = :featureId and v.version <= :fromVersion
+			order by v.version desc
+			""")
+	List<FeatureValueVersionView> findVersionsFrom(
+			@Param("productId") Long productId,
+			@Param("featureId") Long featureId,
+			@Param("fromVersion") int fromVersion,
+			Limit limit
+	);
+
 	void deleteByProductId(Long productId);
 	void deleteByFeatureId(Long featureId);
 	void deleteByProductIdAndFeatureId(Long productId, Long featureId);
+
+	/**
+	 * Latest and previous version of every (product, feature) cell in a workspace, newest first per cell.
+	 */
+	@Query(value = """
+			SELECT ranked.product_id AS productId, ranked.feature_id AS featureId,
+			       ranked.value AS value, ranked.version AS version, ranked.updated_at AS updatedAt
+			FROM (
+			    SELECT fv.product_id, fv.feature_id, fv.value, fv.version, fv.updated_at,
+			           ROW_NUMBER() OVER (PARTITION BY fv.product_id, fv.feature_id ORDER BY fv.version DESC) AS version_rank
+			    FROM feature_value fv
+			    JOIN product p ON p.id = fv.product_id
+			    WHERE p.workspace_id = :workspaceId
+			) ranked
+			WHERE ranked.version_rank <= 2
+			ORDER BY ranked.product_id, ranked.feature_id, ranked.version DESC
+			""", nativeQuery = true)
+	List<FeatureValueVersionView> findLatestTwoVersionsByWorkspaceId(@Param("workspaceId") Long workspaceId);
+
+	@Query("""
+			select v.id as id, v.value as value from FeatureValue v
+			where v.id > :afterId
+			and (v.numericStatus is null or v.numericStatus = com.productcompare.entity.NumericParseStatus.PARSED)
+			order by v.id
+			""")
+	List<StoredValueView> findUnparsedValues(@Param("afterId") Long afterId, Limit limit);
+
+	@Modifying
+	@Query("""
+			update FeatureValue v
+			set v.numericValue = :numericValue, v.numericUnit = :numericUnit, v.numericStatus = :numericStatus
+			where v.id = :id
+			""")
+	int updateNumericValue(
+			@Param("id") Long id,
+			@Param("numericValue") Double numericValue,
+			@Param("numericUnit") String numericUnit,
+			@Param("numericStatus") NumericParseStatus numericStatus
+	);
 }
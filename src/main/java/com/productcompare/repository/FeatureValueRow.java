@@ -0,0 +1,17 @@
+package com.productcompare.repository;
+
+import com.productcompare.entity.NumericParseStatus;
+
+import java.time.LocalDateTime;
+
+public record FeatureValueRow(
+        Long productId,
+        Long featureId,
+        String value,
+        int version,
+        LocalDateTime updatedAt,
+        Double numericValue,
+        String numericUnit,
+        NumericParseStatus numericStatus
+) {
+}
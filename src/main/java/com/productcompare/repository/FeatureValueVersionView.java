@@ -0,0 +1,11 @@
+package com.productcompare.repository;
+
+import java.time.LocalDateTime;
+
+public interface FeatureValueVersionView {
+    Long getProductId();
+    Long getFeatureId();
+    String getValue();
+    int getVersion();
+    LocalDateTime getUpdatedAt();
+}
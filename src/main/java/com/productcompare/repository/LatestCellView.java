@@ -0,0 +1,4 @@
+package com.productcompare.repository;
+
+public record LatestCellView(Long productId, Long featureId, String value, boolean changed, String trend) {
+}
@@ -0,0 +1,95 @@
+package com.productcompare.repository;
+
+import com.productcompare.entity.LatestFeatureValue;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface LatestFeatureValueRepository extends JpaRepository<LatestFeatureValue, Long> {
+    List<LatestFeatureValue> findByWorkspaceId(Long workspaceId);
+    List<LatestFeatureValue> findByProductId(Long productId);
+    List<LatestFeatureValue> findByProductIdIn(Collection<Long> productIds);
+    List<LatestFeatureValue> findByWorkspaceIdAndProductIdInAndFeatureIdIn(Long workspaceId, Collection<Long> productIds, Collection<Long> featureIds);
+
+    /**
+     * Locks a cell's row, which doubles as the cell's version counter, until the transaction ends.
+     * Writers of other cells lock other rows and never wait on this one.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from LatestFeatureValue l where l.productId = :productId and l.featureId = :featureId")
+    Optional<LatestFeatureValue> findForUpdate(@Param("productId") Long productId, @Param("featureId") Long featureId);
+
+    /**
+     * Locks the rows of one product's cells in index order, so two batches touching the same cells cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select l from LatestFeatureValue l
+            where l.productId = :productId and l.featureId in :featureIds
+            order by l.featureId
+            """)
+    List<LatestFeatureValue> findForUpdate(
+            @Param("productId") Long productId,
+            @Param("featureIds") Collection<Long> featureIds
+    );
+
+    void deleteByProductId(Long productId);
+    void deleteByFeatureId(Long featureId);
+    void deleteByProductIdAndFeatureId(Long productId, Long featureId);
+
+    @Query("""
+            select l from LatestFeatureValue l
+            where l.id > :afterId
+            and (l.numericStatus is null or l.numericStatus = com.productcompare.entity.NumericParseStatus.PARSED)
+            order by l.id
+            """)
+    List<LatestFeatureValue> findUnparsedAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("""
+            select new com.productcompare.repository.NumericCellView(l.productId, l.featureId, l.numericValue, l.numericUnit)
+            from LatestFeatureValue l
+            where l.workspaceId = :workspaceId and l.numericValue is not null
+            """)
+    List<NumericCellView> findNumericCellsByWorkspaceId(@Param("workspaceId") Long workspaceId);
+
+    @Query("""
+            select new com.productcompare.repository.NumericCellView(l.productId, l.featureId, l.numericValue, l.numericUnit)
+            from LatestFeatureValue l
+            where l.workspaceId = :workspaceId and l.featureId in :featureIds and l.numericValue is not null
+            """)
+    List<NumericCellView> findNumericCellsByWorkspaceIdAndFeatureIdIn(
+            @Param("workspaceId") Long workspaceId,
+            @Param("featureIds") Collection<Long> featureIds
+    );
+
+    @Query("""
+            select new com.productcompare.repository.LatestValueView(l.productId, l.featureId, l.value, l.numericValue)
+            from LatestFeatureValue l
+            where l.workspaceId = :workspaceId
+            """)
+    List<LatestValueView> findValuesByWorkspaceId(@Param("workspaceId") Long workspaceId);
+
+    /**
+     * Streams a workspace's cells in matrix order (feature name, then product name) without
+     * buffering the result set; MySQL only streams rows when the fetch size is Integer.MIN_VALUE.
+     */
+    @Query("""
+            select new com.productcompare.repository.LatestCellView(l.productId, l.featureId, l.value, l.changed, l.trend)
+            from LatestFeatureValue l, Feature f, Product p
+            where l.featureId = f.id and l.productId = p.id and l.workspaceId = :workspaceId
+            order by f.name asc, p.name asc
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<LatestCellView> streamCellsInMatrixOrder(@Param("workspaceId") Long workspaceId);
+}
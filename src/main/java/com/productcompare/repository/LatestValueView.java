@@ -0,0 +1,4 @@
+package com.productcompare.repository;
+
+public record LatestValueView(Long productId, Long featureId, String value, Double numericValue) {
+}
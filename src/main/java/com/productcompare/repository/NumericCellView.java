@@ -0,0 +1,4 @@
+package com.productcompare.repository;
+
+public record NumericCellView(Long productId, Long featureId, double numericValue, String numericUnit) {
+}
@@ -0,0 +1,15 @@
+package com.productcompare.repository;
+
+import com.productcompare.entity.PendingWorkspaceChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface PendingWorkspaceChangeRepository extends JpaRepository<PendingWorkspaceChange, Long> {
+    List<PendingWorkspaceChange> findByWorkspaceIdOrderByIdAsc(Long workspaceId, Limit limit);
+
+    @Query("select distinct p.workspaceId from PendingWorkspaceChange p")
+    List<Long> findWorkspaceIds();
+}
@@ -0,0 +1,28 @@
+package com.productcompare.repository;
+
+import com.productcompare.entity.ProductBestPrice;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductBestPriceRepository extends JpaRepository<ProductBestPrice, Long> {
+    List<ProductBestPrice> findByProductIdIn(Collection<Long> productIds);
+    List<ProductBestPrice> findByWorkspaceIdAndProductIdInOrderByPriceAscProductIdAsc(Long workspaceId, Collection<Long> productIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from ProductBestPrice b where b.productId = :productId")
+    Optional<ProductBestPrice> findForUpdate(@Param("productId") Long productId);
+
+    @Query("""
+            select new com.productcompare.repository.ProductPriceView(b.productId, b.price)
+            from ProductBestPrice b
+            where b.workspaceId = :workspaceId
+            """)
+    List<ProductPriceView> findPricesByWorkspaceId(@Param("workspaceId") Long workspaceId);
+}
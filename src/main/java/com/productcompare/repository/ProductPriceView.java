@@ -0,0 +1,6 @@
+package com.productcompare.repository;
+
+import java.math.BigDecimal;
+
+public record ProductPriceView(Long productId, BigDecimal price) {
+}
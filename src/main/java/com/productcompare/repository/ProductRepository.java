@@ -1,12 +1,33 @@
 package com.productcompare.repository;
 
 import com.productcompare.entity.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
 	List<Product> findByWorkspaceIdOrderByNameAsc(Long workspaceId);
 	Optional<Product> findByIdAndWorkspaceId(Long id, Long workspaceId);
+	List<Product> findByWorkspaceIdOrderByNameAsc(Long workspaceId, Limit limit);
+	List<Product> findByWorkspaceIdAndNameGreaterThanOrderByNameAsc(Long workspaceId, String name, Limit limit);
+	List<Product> findByWorkspaceIdAndIdInOrderByNameAsc(Long workspaceId, Collection<Long> ids);
+
+	@Query("select p from Product p join fetch p.workspace where p.id in :ids")
+	List<Product> findAllWithWorkspaceByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query("select p.name from Product p where p.workspace.id = :workspaceId and p.name in :names")
+	List<String> findNamesByWorkspaceIdAndNameIn(@Param("workspaceId") Long workspaceId, @Param("names") Collection<String> names);
+
+	@Query("select p.revision from Product p where p.id = :id and p.workspace.id = :workspaceId")
+	Optional<Long> findRevisionByIdAndWorkspaceId(@Param("id") Long id, @Param("workspaceId") Long workspaceId);
+
+	@Modifying
+	@Query("update Product p set p.revision = p.revision + 1 where p.id = :id")
+	int incrementRevision(@Param("id") Long id);
 }
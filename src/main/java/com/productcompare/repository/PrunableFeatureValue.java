@@ -0,0 +1,13 @@
+package com.productcompare.repository;
+
+import java.time.LocalDateTime;
+
+public record PrunableFeatureValue(
+        Long id,
+        Long productId,
+        Long featureId,
+        int version,
+        String value,
+        LocalDateTime updatedAt
+) {
+}
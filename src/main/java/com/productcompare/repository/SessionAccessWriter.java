@@ -0,0 +1,40 @@
+package com.productcompare.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes buffered session access times as one JDBC batch. A time never moves backwards, so a flush that
+ * races a newer one cannot undo it.
+ */
+@Repository
+public class SessionAccessWriter {
+
+    private static final int JDBC_BATCH_SIZE = 500;
+    private static final String UPDATE_LAST_ACCESS = """
+            update user_session set last_access_at = ?
+            where token = ? and last_access_at < ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SessionAccessWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void updateLastAccess(Map<String, LocalDateTime> lastAccessByToken) {
+        List<Map.Entry<String, LocalDateTime>> entries = new ArrayList<>(lastAccessByToken.entrySet());
+        jdbcTemplate.batchUpdate(UPDATE_LAST_ACCESS, entries, JDBC_BATCH_SIZE, (statement, entry) -> {
+            Timestamp lastAccess = Timestamp.valueOf(entry.getValue());
+            statement.setTimestamp(1, lastAccess);
+            statement.setString(2, entry.getKey());
+            statement.setTimestamp(3, lastAccess);
+        });
+    }
+}
@@ -1,7 +1,12 @@
 package com.productcompare.repository;
 
 import com.productcompare.entity.StorePrice;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,4 +15,21 @@ public interface StorePriceRepository extends JpaRepository<StorePrice, Long> {
     List<StorePrice> findByProductIdOrderByStoreNameAsc(Long productId);
     Optional<StorePrice> findByProductIdAndStoreNameIgnoreCase(Long productId, String storeName);
     Optional<StorePrice> findByIdAndProductId(Long id, Long productId);
+
+    long countByProductId(Long productId);
+
+    /**
+     * Reads the latest committed rows, not the transaction's snapshot, so a best-price refresh
+     * sees store writes that committed while it waited for the best-price row lock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    Optional<StorePrice> findFirstByProductIdOrderByPriceAscStoreNameAsc(Long productId);
+
+    @Query("""
+            select distinct s.productId from StorePrice s
+            where s.productId > :afterId
+            and not exists (select 1 from ProductBestPrice b where b.productId = s.productId)
+            order by s.productId
+            """)
+    List<Long> findProductIdsWithoutBestPrice(@Param("afterId") Long afterId, Limit limit);
 }
@@ -0,0 +1,7 @@
+package com.productcompare.repository;
+
+public interface StoredValueView {
+    Long getId();
+
+    String getValue();
+}
@@ -2,10 +2,20 @@ package com.productcompare.repository;
 
 import com.productcompare.entity.UserWorkspace;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface UserWorkspaceRepository extends JpaRepository<UserWorkspace, Long> {
     Optional<UserWorkspace> findByUsername(String username);
     boolean existsByUsername(String username);
+
+    @Query("select w.revision from UserWorkspace w where w.id = :workspaceId")
+    Optional<Long> findRevisionById(@Param("workspaceId") Long workspaceId);
+
+    @Modifying
+    @Query("update UserWorkspace w set w.revision = w.revision + 1 where w.id = :workspaceId")
+    int incrementRevision(@Param("workspaceId") Long workspaceId);
 }
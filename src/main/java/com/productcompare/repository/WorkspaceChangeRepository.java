@@ -0,0 +1,18 @@
+package com.productcompare.repository;
+
+import com.productcompare.entity.WorkspaceChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface WorkspaceChangeRepository extends JpaRepository<WorkspaceChange, Long> {
+    List<WorkspaceChange> findByWorkspaceIdAndRevisionGreaterThanOrderByRevisionAscIdAsc(Long workspaceId, long revision, Limit limit);
+
+    @Modifying
+    @Query("delete from WorkspaceChange c where c.workspaceId = :workspaceId and c.revision <= :revision")
+    int deleteUpToRevision(@Param("workspaceId") Long workspaceId, @Param("revision") long revision);
+}
@@ -23,15 +23,21 @@ public class AuthService {
     private final UserWorkspaceRepository userWorkspaceRepository;
     private final UserSessionRepository userSessionRepository;
     private final PasswordEncoder passwordEncoder;
+    private final SessionAccessRecorder sessionAccessRecorder;
+    private final SessionCache sessionCache;
 
     public AuthService(
             UserWorkspaceRepository userWorkspaceRepository,
             UserSessionRepository userSessionRepository,
-            PasswordEncoder passwordEncoder
+            PasswordEncoder passwordEncoder,
+            SessionAccessRecorder sessionAccessRecorder,
+            SessionCache sessionCache
     ) {
         this.userWorkspaceRepository = userWorkspaceRepository;
         this.userSessionRepository = userSessionRepository;
         this.passwordEncoder = passwordEncoder;
+        this.sessionAccessRecorder = sessionAccessRecorder;
+        this.sessionCache = sessionCache;
     }
 
     @Transactional
@@ -67,7 +73,6 @@ public class AuthService {
         return createSession(workspace);
     }
 
-    @Transactional
     public AuthResponse me(String token) {
         UserWorkspace workspace = getWorkspaceByToken(token);
         return new AuthResponse(token, workspace.getUsername());
@@ -77,17 +82,33 @@ public class AuthService {
     public void logout(String token) {
         String normalizedToken = normalizeToken(token);
         userSessionRepository.deleteByToken(normalizedToken);
+        sessionCache.invalidate(normalizedToken);
+        sessionAccessRecorder.forget(normalizedToken);
     }
 
-    @Transactional
+    /**
+     * Runs on every authenticated call. A cached token costs one hash lookup and no transaction; otherwise the
+     * session is read once and cached. The access time is written later by {@link SessionAccessRecorder}.
+     * The returned workspace is detached and carries only its id and username.
+     */
     public UserWorkspace getWorkspaceByToken(String token) {
         String normalizedToken = normalizeToken(token);
-        UserSession session = userSessionRepository.findByToken(normalizedToken)
-                .orElseThrow(() -> new ResponseStatusException(UNAUTHORIZED, "Unauthorized"));
+        SessionCache.CachedSession cached = sessionCache.get(normalizedToken);
+        if (cached == null) {
+            UserSession session = userSessionRepository.findByToken(normalizedToken)
+                    .orElseThrow(() -> new ResponseStatusException(UNAUTHORIZED, "Unauthorized"));
+            WorkspacePrincipal principal = new WorkspacePrincipal(session.getWorkspace().getId(), session.getWorkspace().getUsername());
+            cached = sessionCache.put(normalizedToken, principal, session.getLastAccessAt());
+            if (cached == null) {
+                throw new ResponseStatusException(UNAUTHORIZED, "Unauthorized");
+            }
+        }
 
-        session.setLastAccessAt(LocalDateTime.now());
-        userSessionRepository.save(session);
-        return session.getWorkspace();
+        LocalDateTime now = LocalDateTime.now();
+        if (sessionAccessRecorder.recordAccess(normalizedToken, cached.getLastAccess(), now)) {
+            cached.setLastAccess(now);
+        }
+        return cached.getPrincipal().toWorkspace();
     }
 
     private AuthResponse createSession(UserWorkspace workspace) {
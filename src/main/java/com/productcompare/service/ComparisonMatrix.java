@@ -0,0 +1,147 @@
+package com.productcompare.service;
+
+import com.productcompare.dto.ComparisonResponse;
+import com.productcompare.dto.ComparisonRowResponse;
+import com.productcompare.dto.FeatureValueCellResponse;
+import com.productcompare.dto.ItemResponse;
+import com.productcompare.entity.Feature;
+import com.productcompare.entity.Product;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, index-addressed form of a workspace comparison matrix, used for caching.
+ * Products and features are addressed by their ordinal in name order and cells live in flat
+ * feature-major arrays; response DTOs are only materialized by {@link #toResponse()}.
+ */
+public final class ComparisonMatrix {
+
+    private static final byte TREND_SAME = 0;
+    private static final byte TREND_UP = 1;
+    private static final byte TREND_DOWN = 2;
+
+    private final long[] productIds;
+    private final String[] productNames;
+    private final long[] featureIds;
+    private final String[] featureNames;
+    private final String[] values;
+    private final BitSet changed;
+    private final byte[] trends;
+
+    private ComparisonMatrix(List<Product> products, List<Feature> features) {
+        productIds = new long[products.size()];
+        productNames = new String[products.size()];
+        for (int p = 0; p < products.size(); p++) {
+            productIds[p] = products.get(p).getId();
+            productNames[p] = products.get(p).getName();
+        }
+
+        featureIds = new long[features.size()];
+        featureNames = new String[features.size()];
+        for (int f = 0; f < features.size(); f++) {
+            featureIds[f] = features.get(f).getId();
+            featureNames[f] = features.get(f).getName();
+        }
+
+        int cells = products.size() * features.size();
+        values = new String[cells];
+        changed = new BitSet(cells);
+        trends = new byte[cells];
+    }
+
+    static Builder builder(List<Product> products, List<Feature> features) {
+        return new Builder(new ComparisonMatrix(products, features));
+    }
+
+    public int productCount() {
+        return productIds.length;
+    }
+
+    public int featureCount() {
+        return featureIds.length;
+    }
+
+    public ComparisonResponse toResponse() {
+        List<ItemResponse> productItems = new ArrayList<>(productIds.length);
+        for (int p = 0; p < productIds.length; p++) {
+            productItems.add(new ItemResponse(productIds[p], productNames[p]));
+        }
+
+        List<ItemResponse> featureItems = new ArrayList<>(featureIds.length);
+        List<ComparisonRowResponse> rows = new ArrayList<>(featureIds.length);
+        for (int f = 0; f < featureIds.length; f++) {
+            featureItems.add(new ItemResponse(featureIds[f], featureNames[f]));
+
+            List<FeatureValueCellResponse> cells = new ArrayList<>(productIds.length);
+            int offset = f * productIds.length;
+            for (int p = 0; p < productIds.length; p++) {
+                int cell = offset + p;
+                if (values[cell] == null) {
+                    cells.add(new FeatureValueCellResponse(productIds[p], "-", false, "same"));
+                } else {
+                    cells.add(new FeatureValueCellResponse(productIds[p], values[cell], changed.get(cell), trendName(trends[cell])));
+                }
+            }
+            rows.add(new ComparisonRowResponse(featureIds[f], featureNames[f], cells));
+        }
+
+        return new ComparisonResponse(List.copyOf(productItems), List.copyOf(featureItems), rows);
+    }
+
+    private static byte trendCode(String trend) {
+        if ("up".equals(trend)) {
+            return TREND_UP;
+        }
+        if ("down".equals(trend)) {
+            return TREND_DOWN;
+        }
+        return TREND_SAME;
+    }
+
+    private static String trendName(byte trend) {
+        return switch (trend) {
+            case TREND_UP -> "up";
+            case TREND_DOWN -> "down";
+            default -> "same";
+        };
+    }
+
+    static final class Builder {
+        private final ComparisonMatrix matrix;
+        private final Map<Long, Integer> productOrdinals = new HashMap<>();
+        private final Map<Long, Integer> featureOrdinals = new HashMap<>();
+        // Many cells share the same text ("8 GB", "Android 14"), so identical values share one String.
+        private final Map<String, String> distinctValues = new HashMap<>();
+
+        private Builder(ComparisonMatrix matrix) {
+            this.matrix = matrix;
+            for (int p = 0; p < matrix.productIds.length; p++) {
+                productOrdinals.put(matrix.productIds[p], p);
+            }
+            for (int f = 0; f < matrix.featureIds.length; f++) {
+                featureOrdinals.put(matrix.featureIds[f], f);
+            }
+        }
+
+        Builder cell(Long productId, Long featureId, String value, boolean changed, String trend) {
+            Integer p = productOrdinals.get(productId);
+            Integer f = featureOrdinals.get(featureId);
+            if (p == null || f == null || value == null) {
+                return this;
+            }
+            int cell = f * matrix.productIds.length + p;
+            matrix.values[cell] = distinctValues.computeIfAbsent(value, v -> v);
+            matrix.changed.set(cell, changed);
+            matrix.trends[cell] = trendCode(trend);
+            return this;
+        }
+
+        ComparisonMatrix build() {
+            return matrix;
+        }
+    }
+}
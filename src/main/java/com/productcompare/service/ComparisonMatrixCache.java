@@ -0,0 +1,104 @@
+package com.productcompare.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-process LRU cache of built comparison matrices, one entry per workspace.
+ * An entry is only served while its revision matches the workspace's current revision,
+ * so writers never have to touch the cache directly. Entries are weighed in cells and
+ * the least recently used ones are evicted once the total weight exceeds the configured maximum.
+ */
+@Component
+public class ComparisonMatrixCache {
+
+    private final long maxWeight;
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ComparisonMatrixCache(
+            @Value("${productcompare.comparison-cache.max-weight:2000000}") long maxWeight,
+            MeterRegistry meterRegistry
+    ) {
+        this.maxWeight = maxWeight;
+        this.hits = Counter.builder("comparison.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("comparison.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("comparison.cache.evictions").register(meterRegistry);
+        Gauge.builder("comparison.cache.size", this, ComparisonMatrixCache::size).register(meterRegistry);
+        Gauge.builder("comparison.cache.weight", this, ComparisonMatrixCache::weight).register(meterRegistry);
+    }
+
+    public synchronized ComparisonMatrix get(Long workspaceId, long revision) {
+        Entry entry = entries.get(workspaceId);
+        if (entry == null || entry.revision != revision) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.matrix;
+    }
+
+    public synchronized void put(Long workspaceId, long revision, ComparisonMatrix matrix) {
+        long weight = weigh(matrix);
+        if (weight > maxWeight) {
+            remove(workspaceId);
+            return;
+        }
+
+        Entry existing = entries.get(workspaceId);
+        if (existing != null && existing.revision > revision) {
+            return;
+        }
+
+        remove(workspaceId);
+        entries.put(workspaceId, new Entry(revision, matrix, weight));
+        totalWeight += weight;
+
+        Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && eldest.hasNext()) {
+            Entry evicted = eldest.next().getValue();
+            eldest.remove();
+            totalWeight -= evicted.weight;
+            evictions.increment();
+        }
+    }
+
+    public synchronized void invalidate(Long workspaceId) {
+        remove(workspaceId);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return totalWeight;
+    }
+
+    private void remove(Long workspaceId) {
+        Entry removed = entries.remove(workspaceId);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+        }
+    }
+
+    private static long weigh(ComparisonMatrix matrix) {
+        long products = matrix.productCount();
+        long features = matrix.featureCount();
+        return Math.max(1, products * features + products + features);
+    }
+
+    private record Entry(long revision, ComparisonMatrix matrix, long weight) {
+    }
+}
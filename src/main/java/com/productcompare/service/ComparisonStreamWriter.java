@@ -0,0 +1,113 @@
+package com.productcompare.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productcompare.entity.Feature;
+import com.productcompare.entity.Product;
+import com.productcompare.entity.UserWorkspace;
+import com.productcompare.repository.FeatureRepository;
+import com.productcompare.repository.LatestCellView;
+import com.productcompare.repository.LatestFeatureValueRepository;
+import com.productcompare.repository.ProductRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes the same JSON document as {@code ComparisonResponse} straight to the response stream.
+ * Cells are read from a streaming cursor in matrix order and written as they arrive, so only
+ * the product and feature headers are held in memory, never the whole matrix.
+ */
+@Component
+public class ComparisonStreamWriter {
+
+    private final ProductRepository productRepository;
+    private final FeatureRepository featureRepository;
+    private final LatestFeatureValueRepository latestFeatureValueRepository;
+    private final ObjectMapper objectMapper;
+
+    public ComparisonStreamWriter(
+            ProductRepository productRepository,
+            FeatureRepository featureRepository,
+            LatestFeatureValueRepository latestFeatureValueRepository,
+            ObjectMapper objectMapper
+    ) {
+        this.productRepository = productRepository;
+        this.featureRepository = featureRepository;
+        this.latestFeatureValueRepository = latestFeatureValueRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public void write(UserWorkspace workspace, OutputStream outputStream) throws IOException {
+        List<Product> products = productRepository.findByWorkspaceIdOrderByNameAsc(workspace.getId());
+        List<Feature> features = featureRepository.findByWorkspaceIdOrderByNameAsc(workspace.getId());
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+
+        generator.writeStartObject();
+
+        generator.writeArrayFieldStart("products");
+        for (Product product : products) {
+            writeItem(generator, product.getId(), product.getName());
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("features");
+        for (Feature feature : features) {
+            writeItem(generator, feature.getId(), feature.getName());
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("rows");
+        try (Stream<LatestCellView> cells = latestFeatureValueRepository.streamCellsInMatrixOrder(workspace.getId())) {
+            Iterator<LatestCellView> cursor = cells.iterator();
+            LatestCellView pending = cursor.hasNext() ? cursor.next() : null;
+
+            for (Feature feature : features) {
+                generator.writeStartObject();
+                generator.writeNumberField("featureId", feature.getId());
+                generator.writeStringField("featureName", feature.getName());
+                generator.writeArrayFieldStart("cells");
+                for (Product product : products) {
+                    if (pending != null
+                            && pending.featureId().equals(feature.getId())
+                            && pending.productId().equals(product.getId())) {
+                        writeCell(generator, product.getId(), pending.value(), pending.changed(), pending.trend());
+                        pending = cursor.hasNext() ? cursor.next() : null;
+                    } else {
+                        writeCell(generator, product.getId(), "-", false, "same");
+                    }
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        }
+        generator.writeEndArray();
+
+        generator.writeEndObject();
+        generator.close();
+    }
+
+    private void writeItem(JsonGenerator generator, Long id, String name) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", id);
+        generator.writeStringField("name", name);
+        generator.writeEndObject();
+    }
+
+    private void writeCell(JsonGenerator generator, Long productId, String value, boolean changed, String trend) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("productId", productId);
+        generator.writeStringField("value", value);
+        generator.writeBooleanField("changed", changed);
+        generator.writeStringField("trend", trend);
+        generator.writeEndObject();
+    }
+}
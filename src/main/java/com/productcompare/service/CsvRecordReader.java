@@ -0,0 +1,87 @@
+package com.productcompare.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader: comma separated, fields optionally quoted, {@code ""} for a quote inside a quoted
+ * field, and line breaks allowed inside quotes. Only the current record is held in memory.
+ */
+final class CsvRecordReader {
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private int pending = -2;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the next record, or null at the end of input. Blank lines are skipped.
+     */
+    List<String> next() throws IOException {
+        List<String> record = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean fieldStarted = false;
+        int c;
+        while ((c = read()) != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(following);
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+                fieldStarted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+                fieldStarted = true;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        unread(following);
+                    }
+                }
+                if (!fieldStarted && field.isEmpty() && record.isEmpty()) {
+                    continue;
+                }
+                record.add(field.toString());
+                return record;
+            } else {
+                field.append((char) c);
+                fieldStarted = true;
+            }
+        }
+        if (!fieldStarted && field.isEmpty() && record.isEmpty()) {
+            return null;
+        }
+        record.add(field.toString());
+        return record;
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pending = c;
+    }
+}
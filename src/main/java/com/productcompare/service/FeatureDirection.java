@@ -0,0 +1,25 @@
+package com.productcompare.service;
+
+import java.util.List;
+
+/**
+ * Which way a numeric feature improves, shared by ranking and skyline so both read a feature the same way:
+ * price, cost and weight are better when lower, everything else when higher.
+ */
+final class FeatureDirection {
+
+    private static final List<String> LOWER_IS_BETTER_KEYWORDS = List.of("price", "cost", "weight");
+
+    private FeatureDirection() {
+    }
+
+    static boolean isLowerBetter(String featureName) {
+        String name = featureName.toLowerCase();
+        for (String keyword : LOWER_IS_BETTER_KEYWORDS) {
+            if (name.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,98 @@
+package com.productcompare.service;
+
+import com.productcompare.repository.NumericCellView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * How the values of a feature are read, shared by validation, similarity, ranking and skyline so they all agree:
+ * link features hold URLs, categorical features (operating system, processor) hold labels that only compare as
+ * equal or different, and every other feature is measured in the unit most of its values use.
+ */
+final class FeatureKinds {
+
+    private static final List<String> LINK_KEYWORDS = List.of("link", "url", "buy", "purchase", "store");
+    private static final List<String> CATEGORICAL_KEYWORDS = List.of("operating system", "processor", "chipset", "cpu");
+
+    private FeatureKinds() {
+    }
+
+    static boolean isLink(String featureName) {
+        String name = featureName == null ? "" : featureName.trim().toLowerCase();
+        for (String keyword : LINK_KEYWORDS) {
+            if (name.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isCategorical(String featureName) {
+        String name = featureName.trim().toLowerCase();
+        if (name.equals("os")) {
+            return true;
+        }
+        for (String keyword : CATEGORICAL_KEYWORDS) {
+            if (name.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a feature can be scored on its numeric values: neither a link nor categorical, even when some
+     * of its values happen to parse as numbers.
+     */
+    static boolean isMeasurable(String featureName) {
+        return featureName != null && !isLink(featureName) && !isCategorical(featureName);
+    }
+
+    /**
+     * Keeps, per feature, the cells in the feature's dominant unit, the one most of its cells use. Amounts in
+     * different units cannot be ranked against each other, so the rest count as missing. Ties go to the unit
+     * that sorts first, no unit before any unit, so the choice does not depend on row order.
+     */
+    static List<NumericCellView> inDominantUnit(List<NumericCellView> cells) {
+        Map<Long, Map<String, Integer>> unitCounts = new HashMap<>();
+        for (NumericCellView cell : cells) {
+            unitCounts.computeIfAbsent(cell.featureId(), id -> new HashMap<>())
+                    .merge(cell.numericUnit(), 1, Integer::sum);
+        }
+        Map<Long, String> dominantUnits = new HashMap<>(unitCounts.size() * 2);
+        unitCounts.forEach((featureId, counts) -> dominantUnits.put(featureId, dominantUnit(counts)));
+
+        List<NumericCellView> dominant = new ArrayList<>(cells.size());
+        for (NumericCellView cell : cells) {
+            if (Objects.equals(cell.numericUnit(), dominantUnits.get(cell.featureId()))) {
+                dominant.add(cell);
+            }
+        }
+        return dominant;
+    }
+
+    private static String dominantUnit(Map<String, Integer> counts) {
+        String dominant = null;
+        int dominantCount = 0;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            String unit = entry.getKey();
+            int count = entry.getValue();
+            if (count > dominantCount || (count == dominantCount && sortsBefore(unit, dominant))) {
+                dominant = unit;
+                dominantCount = count;
+            }
+        }
+        return dominant;
+    }
+
+    private static boolean sortsBefore(String unit, String other) {
+        if (unit == null || other == null) {
+            return unit == null && other != null;
+        }
+        return unit.compareTo(other) < 0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.productcompare.service;
+
+import com.productcompare.entity.Feature;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lookup of features by normalized name across one or more workspaces, built once per request
+ * so rows can be matched across workspaces with hash lookups instead of scanning feature lists.
+ */
+final class FeatureNameIndex {
+
+    private final Map<Long, Map<String, Feature>> featuresByWorkspace = new HashMap<>();
+    private final Map<String, Feature> firstFeatureByName = new LinkedHashMap<>();
+
+    /**
+     * @param workspaceIds workspaces in precedence order; when several workspaces share a feature name,
+     *                     the feature of the first one represents the merged row
+     * @param features     features of those workspaces, in any order
+     */
+    FeatureNameIndex(Collection<Long> workspaceIds, Collection<Feature> features) {
+        for (Long workspaceId : workspaceIds) {
+            featuresByWorkspace.put(workspaceId, new HashMap<>());
+        }
+        for (Feature feature : features) {
+            if (feature == null || feature.getName() == null || feature.getName().isBlank()) {
+                continue;
+            }
+            Map<String, Feature> workspaceFeatures = featuresByWorkspace.get(feature.getWorkspace().getId());
+            if (workspaceFeatures != null) {
+                workspaceFeatures.putIfAbsent(normalize(feature.getName()), feature);
+            }
+        }
+        for (Long workspaceId : workspaceIds) {
+            featuresByWorkspace.get(workspaceId).forEach(firstFeatureByName::putIfAbsent);
+        }
+    }
+
+    static String normalize(String name) {
+        return name.trim().toLowerCase();
+    }
+
+    Feature find(Long workspaceId, String normalizedName) {
+        Map<String, Feature> workspaceFeatures = featuresByWorkspace.get(workspaceId);
+        return workspaceFeatures == null ? null : workspaceFeatures.get(normalizedName);
+    }
+
+    /**
+     * One representative feature per distinct normalized name.
+     */
+    List<Feature> mergedFeatures() {
+        return new ArrayList<>(firstFeatureByName.values());
+    }
+}
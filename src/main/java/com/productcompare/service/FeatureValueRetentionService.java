@@ -0,0 +1,126 @@
+package com.productcompare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productcompare.entity.FeatureValueArchive;
+import com.productcompare.repository.FeatureValueArchiveRepository;
+import com.productcompare.repository.FeatureValueHistoryPruner;
+import com.productcompare.repository.PrunableFeatureValue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Applies the feature value history retention policy one chunk per transaction. A version is kept while it is one
+ * of the newest {@code keep-versions} of its cell or younger than {@code max-age-days}; a rule set to zero is off,
+ * and with both off nothing is pruned. The current version of a cell is never pruned. Pruned versions are optionally
+ * archived as compressed chunks in {@link FeatureValueArchive} before they are deleted.
+ */
+@Service
+public class FeatureValueRetentionService {
+
+    private final FeatureValueHistoryPruner pruner;
+    private final FeatureValueArchiveRepository archiveRepository;
+    private final ObjectMapper objectMapper;
+    private final int keepVersions;
+    private final int maxAgeDays;
+    private final boolean archive;
+    private final int chunkSize;
+    private final Counter rowsPruned;
+    private final Counter bytesReclaimed;
+    private final Counter bytesArchived;
+
+    public FeatureValueRetentionService(
+            FeatureValueHistoryPruner pruner,
+            FeatureValueArchiveRepository archiveRepository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${productcompare.history-retention.keep-versions:0}") int keepVersions,
+            @Value("${productcompare.history-retention.max-age-days:0}") int maxAgeDays,
+            @Value("${productcompare.history-retention.archive:true}") boolean archive,
+            @Value("${productcompare.history-retention.chunk-size:1000}") int chunkSize
+    ) {
+        this.pruner = pruner;
+        this.archiveRepository = archiveRepository;
+        this.objectMapper = objectMapper;
+        this.keepVersions = keepVersions;
+        this.maxAgeDays = maxAgeDays;
+        this.archive = archive;
+        this.chunkSize = chunkSize;
+        this.rowsPruned = Counter.builder("history.retention.rows.pruned").register(meterRegistry);
+        this.bytesReclaimed = Counter.builder("history.retention.bytes.reclaimed").baseUnit("bytes").register(meterRegistry);
+        this.bytesArchived = Counter.builder("history.retention.bytes.archived").baseUnit("bytes").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return keepVersions > 0 || maxAgeDays > 0;
+    }
+
+    /**
+     * Prunes the versions in the window of {@code chunk-size} ids after {@code afterId}, as of {@code now}.
+     * Returns the end of the window, to pass back as {@code afterId}, or null once the end of the history is reached.
+     */
+    @Transactional
+    public Long pruneChunk(Long afterId, LocalDateTime now) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Long maxId = pruner.findMaxId();
+        if (maxId == null || afterId >= maxId) {
+            return null;
+        }
+        long upToId = Math.min(afterId + chunkSize, maxId);
+        LocalDateTime olderThan = maxAgeDays > 0 ? now.minusDays(maxAgeDays) : now.plusDays(1);
+        List<PrunableFeatureValue> rows = pruner.findPrunable(afterId, upToId, Math.max(keepVersions, 1), olderThan);
+        if (rows.isEmpty()) {
+            return upToId;
+        }
+
+        long valueBytes = 0;
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (PrunableFeatureValue row : rows) {
+            ids.add(row.id());
+            valueBytes += row.value().getBytes(StandardCharsets.UTF_8).length;
+        }
+        if (archive) {
+            FeatureValueArchive chunk = new FeatureValueArchive();
+            chunk.setArchivedAt(now);
+            chunk.setFirstValueId(ids.get(0));
+            chunk.setLastValueId(ids.get(ids.size() - 1));
+            chunk.setRowCount(rows.size());
+            chunk.setOriginalBytes(valueBytes);
+            chunk.setPayload(compress(rows));
+            archiveRepository.save(chunk);
+            bytesArchived.increment(chunk.getPayload().length);
+        }
+        pruner.deleteByIds(ids);
+
+        rowsPruned.increment(rows.size());
+        bytesReclaimed.increment(valueBytes);
+        return upToId;
+    }
+
+    private byte[] compress(List<PrunableFeatureValue> rows) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(bytes)) {
+            for (PrunableFeatureValue row : rows) {
+                gzip.write(objectMapper.writeValueAsBytes(row));
+                gzip.write('\n');
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not compress archived feature values", exception);
+        }
+        return bytes.toByteArray();
+    }
+}
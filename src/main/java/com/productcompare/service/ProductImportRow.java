@@ -0,0 +1,6 @@
+package com.productcompare.service;
+
+import com.productcompare.dto.ProductRequest;
+
+record ProductImportRow(long row, ProductRequest request) {
+}
@@ -0,0 +1,197 @@
+package com.productcompare.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productcompare.dto.ImportRowErrorResponse;
+import com.productcompare.dto.ProductFeatureRequest;
+import com.productcompare.dto.ProductImportResponse;
+import com.productcompare.dto.ProductRequest;
+import com.productcompare.entity.UserWorkspace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.UNSUPPORTED_MEDIA_TYPE;
+
+/**
+ * Streams a CSV or NDJSON catalog upload into {@link ProductService#importProductChunk} a chunk at a time,
+ * so memory stays bounded by the chunk size and each chunk commits on its own.
+ * <p>
+ * CSV needs a header row. The columns {@code name}, {@code category}, {@code price}, {@code imageUrl} and
+ * {@code buyLink} (matched ignoring case, spaces and underscores) fill the product; every other column is a
+ * feature named after its header. NDJSON lines use the {@code POST /api/products} request body.
+ */
+@Service
+public class ProductImportService {
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    public static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+    public static final MediaType APPLICATION_NDJSON = MediaType.valueOf("application/x-ndjson");
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public ProductImportService(
+            ProductService productService,
+            ObjectMapper objectMapper,
+            @Value("${productcompare.import.chunk-size:500}") int chunkSize
+    ) {
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    public ProductImportResponse importProducts(UserWorkspace workspace, MediaType contentType, InputStream body) throws IOException {
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset), 64 * 1024);
+        ImportProgress progress = new ImportProgress();
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            readCsv(workspace, reader, progress);
+        } else if (APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            readNdjson(workspace, reader, progress);
+        } else {
+            throw new ResponseStatusException(UNSUPPORTED_MEDIA_TYPE, "Import accepts text/csv or application/x-ndjson");
+        }
+        flush(workspace, progress);
+        log.info("Imported {} products and {} values into workspace {} ({} rows rejected)",
+                progress.importedProducts, progress.importedValues, workspace.getId(), progress.failedRows);
+        return new ProductImportResponse(progress.importedProducts, progress.importedValues, progress.failedRows, progress.errors);
+    }
+
+    private void readCsv(UserWorkspace workspace, BufferedReader reader, ImportProgress progress) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new ResponseStatusException(BAD_REQUEST, "CSV header row is required");
+        }
+        if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+            header.set(0, header.get(0).substring(1));
+        }
+
+        long row = 0;
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            row++;
+            try {
+                add(workspace, progress, new ProductImportRow(row, toProductRequest(header, record)));
+            } catch (ResponseStatusException exception) {
+                progress.reject(row, exception.getReason());
+            }
+        }
+    }
+
+    private void readNdjson(UserWorkspace workspace, BufferedReader reader, ImportProgress progress) throws IOException {
+        long row = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            try {
+                add(workspace, progress, new ProductImportRow(row, objectMapper.readValue(line, ProductRequest.class)));
+            } catch (JsonProcessingException exception) {
+                progress.reject(row, "Invalid JSON: " + exception.getOriginalMessage());
+            }
+        }
+    }
+
+    private ProductRequest toProductRequest(List<String> header, List<String> record) {
+        if (record.size() > header.size()) {
+            throw new ResponseStatusException(BAD_REQUEST, "Row has more columns than the header");
+        }
+
+        ProductRequest request = new ProductRequest();
+        List<ProductFeatureRequest> features = new ArrayList<>();
+        for (int column = 0; column < record.size(); column++) {
+            String name = header.get(column).trim();
+            String value = record.get(column).trim();
+            switch (name.replace(" ", "").replace("_", "").toLowerCase()) {
+                case "name" -> request.setName(value);
+                case "category" -> request.setCategory(value.isEmpty() ? null : value);
+                case "price" -> request.setPrice(parsePrice(value));
+                case "imageurl" -> request.setImageUrl(value.isEmpty() ? null : value);
+                case "buylink" -> request.setBuyLink(value.isEmpty() ? null : value);
+                default -> {
+                    if (!name.isEmpty() && !value.isEmpty()) {
+                        features.add(new ProductFeatureRequest(name, value, null));
+                    }
+                }
+            }
+        }
+        request.setFeatures(features);
+        return request;
+    }
+
+    private static BigDecimal parsePrice(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.replace(",", ""));
+        } catch (NumberFormatException exception) {
+            throw new ResponseStatusException(BAD_REQUEST, "Price must be a number");
+        }
+    }
+
+    private void add(UserWorkspace workspace, ImportProgress progress, ProductImportRow row) {
+        progress.chunk.add(row);
+        if (progress.chunk.size() >= chunkSize) {
+            flush(workspace, progress);
+        }
+    }
+
+    private void flush(UserWorkspace workspace, ImportProgress progress) {
+        if (progress.chunk.isEmpty()) {
+            return;
+        }
+        List<ProductImportRow> chunk = progress.chunk;
+        progress.chunk = new ArrayList<>(chunkSize);
+        try {
+            ProductImportResponse result = productService.importProductChunk(workspace, chunk);
+            progress.importedProducts += result.importedProducts();
+            progress.importedValues += result.importedValues();
+            for (ImportRowErrorResponse error : result.errors()) {
+                progress.reject(error.row(), error.message());
+            }
+        } catch (DataAccessException exception) {
+            // A concurrent write, such as the same product name added meanwhile, rolls back the whole chunk.
+            log.warn("Import chunk of {} rows failed for workspace {}", chunk.size(), workspace.getId(), exception);
+            for (ProductImportRow row : chunk) {
+                progress.reject(row.row(), "Chunk could not be saved: " + exception.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private final class ImportProgress {
+        private List<ProductImportRow> chunk = new ArrayList<>(chunkSize);
+        private final List<ImportRowErrorResponse> errors = new ArrayList<>();
+        private int importedProducts;
+        private int importedValues;
+        private int failedRows;
+
+        private void reject(long row, String message) {
+            failedRows++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportRowErrorResponse(row, message));
+            }
+        }
+    }
+}
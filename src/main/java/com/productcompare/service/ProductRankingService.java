@@ -0,0 +1,231 @@
+package com.productcompare.service;
+
+import com.productcompare.dto.FeatureContributionResponse;
+import com.productcompare.dto.RankedProductResponse;
+import com.productcompare.entity.Feature;
+import com.productcompare.entity.Product;
+import com.productcompare.entity.UserWorkspace;
+import com.productcompare.repository.FeatureRepository;
+import com.productcompare.repository.LatestFeatureValueRepository;
+import com.productcompare.repository.NumericCellView;
+import com.productcompare.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Ranks every product of a workspace on all of its numeric features at once.
+ * Each feature is min-max normalized across the workspace, weighted by {@link Feature#getImportance()},
+ * and the weighted sum is divided by the total weight so scores stay between 0 and 1.
+ * Link and categorical features are never scored, and a feature is only scored over the values in its
+ * dominant unit; see {@link FeatureKinds}.
+ * Scoring runs feature by feature over flat {@code double} arrays indexed by product ordinal.
+ */
+@Service
+public class ProductRankingService {
+
+    private static final int DEFAULT_TOP = 10;
+    private static final int MAX_TOP = 100;
+
+    private final ProductRepository productRepository;
+    private final FeatureRepository featureRepository;
+    private final LatestFeatureValueRepository latestFeatureValueRepository;
+
+    public ProductRankingService(
+            ProductRepository productRepository,
+            FeatureRepository featureRepository,
+            LatestFeatureValueRepository latestFeatureValueRepository
+    ) {
+        this.productRepository = productRepository;
+        this.featureRepository = featureRepository;
+        this.latestFeatureValueRepository = latestFeatureValueRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public List<RankedProductResponse> rankProducts(UserWorkspace workspace, Integer top) {
+        int limit = resolveTop(top);
+        List<Product> products = productRepository.findByWorkspaceIdOrderByNameAsc(workspace.getId());
+        List<Feature> features = featureRepository.findByWorkspaceIdOrderByNameAsc(workspace.getId());
+        if (products.isEmpty()) {
+            return List.of();
+        }
+
+        int productCount = products.size();
+        int featureCount = features.size();
+        Map<Long, Integer> productOrdinals = new HashMap<>(productCount * 2);
+        for (int p = 0; p < productCount; p++) {
+            productOrdinals.put(products.get(p).getId(), p);
+        }
+        Map<Long, Integer> featureOrdinals = new HashMap<>(featureCount * 2);
+        for (int f = 0; f < featureCount; f++) {
+            featureOrdinals.put(features.get(f).getId(), f);
+        }
+
+        // Feature-major: the values of one feature for all products are contiguous.
+        double[] values = new double[featureCount * productCount];
+        Arrays.fill(values, Double.NaN);
+        List<NumericCellView> cells = latestFeatureValueRepository.findNumericCellsByWorkspaceId(workspace.getId());
+        for (NumericCellView cell : FeatureKinds.inDominantUnit(cells)) {
+            Integer p = productOrdinals.get(cell.productId());
+            Integer f = featureOrdinals.get(cell.featureId());
+            if (p != null && f != null) {
+                values[f * productCount + p] = cell.numericValue();
+            }
+        }
+
+        double[] min = new double[featureCount];
+        double[] range = new double[featureCount];
+        double[] weights = new double[featureCount];
+        boolean[] lowerIsBetter = new boolean[featureCount];
+        double totalWeight = 0;
+        for (int f = 0; f < featureCount; f++) {
+            double low = Double.POSITIVE_INFINITY;
+            double high = Double.NEGATIVE_INFINITY;
+            int offset = f * productCount;
+            for (int p = 0; p < productCount; p++) {
+                double value = values[offset + p];
+                if (!Double.isNaN(value)) {
+                    low = Math.min(low, value);
+                    high = Math.max(high, value);
+                }
+            }
+
+            Integer importance = features.get(f).getImportance();
+            // A feature every product shares (or nobody has) cannot separate products.
+            if (high > low && importance != null && importance > 0 && FeatureKinds.isMeasurable(features.get(f).getName())) {
+                min[f] = low;
+                range[f] = high - low;
+                weights[f] = importance;
+                lowerIsBetter[f] = FeatureDirection.isLowerBetter(features.get(f).getName());
+                totalWeight += importance;
+            }
+        }
+
+        double[] scores = new double[productCount];
+        if (totalWeight > 0) {
+            for (int f = 0; f < featureCount; f++) {
+                if (weights[f] == 0) {
+                    continue;
+                }
+                double scale = weights[f] / (range[f] * totalWeight);
+                int offset = f * productCount;
+                for (int p = 0; p < productCount; p++) {
+                    double value = values[offset + p];
+                    if (!Double.isNaN(value)) {
+                        double distance = lowerIsBetter[f] ? min[f] + range[f] - value : value - min[f];
+                        scores[p] += distance * scale;
+                    }
+                }
+            }
+        }
+
+        int[] ranked = topOrdinals(scores, Math.min(limit, productCount));
+        List<RankedProductResponse> response = new ArrayList<>(ranked.length);
+        for (int rank = 0; rank < ranked.length; rank++) {
+            int p = ranked[rank];
+            List<FeatureContributionResponse> contributions = new ArrayList<>();
+            for (int f = 0; f < featureCount; f++) {
+                if (weights[f] == 0) {
+                    continue;
+                }
+                double value = values[f * productCount + p];
+                if (Double.isNaN(value)) {
+                    contributions.add(new FeatureContributionResponse(features.get(f).getId(), features.get(f).getName(), null, 0));
+                    continue;
+                }
+                double distance = lowerIsBetter[f] ? min[f] + range[f] - value : value - min[f];
+                double contribution = distance * weights[f] / (range[f] * totalWeight);
+                contributions.add(new FeatureContributionResponse(features.get(f).getId(), features.get(f).getName(), value, contribution));
+            }
+            Product product = products.get(p);
+            response.add(new RankedProductResponse(rank + 1, product.getId(), product.getName(), scores[p], contributions));
+        }
+        return response;
+    }
+
+    /**
+     * Selects the k best ordinals with a bounded min-heap, best first. Ties go to the lower ordinal,
+     * which is the product that sorts first by name.
+     */
+    static int[] topOrdinals(double[] scores, int k) {
+        int[] heap = new int[k];
+        int size = 0;
+        for (int p = 0; p < scores.length; p++) {
+            if (size < k) {
+                heap[size] = p;
+                siftUp(heap, size, scores);
+                size++;
+            } else if (isBetter(p, heap[0], scores)) {
+                heap[0] = p;
+                siftDown(heap, size, scores);
+            }
+        }
+
+        int[] ranked = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            ranked[i] = heap[0];
+            heap[0] = heap[i];
+            siftDown(heap, i, scores);
+        }
+        return ranked;
+    }
+
+    private static void siftUp(int[] heap, int index, double[] scores) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!isBetter(heap[parent], heap[index], scores)) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, double[] scores) {
+        int index = 0;
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && isBetter(heap[worst], heap[left], scores)) {
+                worst = left;
+            }
+            if (right < size && isBetter(heap[worst], heap[right], scores)) {
+                worst = right;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(heap, index, worst);
+            index = worst;
+        }
+    }
+
+    private static boolean isBetter(int a, int b, double[] scores) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    private static int resolveTop(Integer top) {
+        if (top == null) {
+            return DEFAULT_TOP;
+        }
+        if (top < 1 || top > MAX_TOP) {
+            throw new ResponseStatusException(BAD_REQUEST, "top must be between 1 and " + MAX_TOP);
+        }
+        return top;
+    }
+}
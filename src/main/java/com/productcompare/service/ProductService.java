@@ -3,13 +3,28 @@ package com.productcompare.service;
 import com.productcompare.dto.*;
 import com.productcompare.entity.Feature;
 import com.productcompare.entity.FeatureValue;
+import com.productcompare.entity.LatestFeatureValue;
+import com.productcompare.entity.NumericParseStatus;
 import com.productcompare.entity.Product;
+import com.productcompare.entity.ProductBestPrice;
 import com.productcompare.entity.UserWorkspace;
+import com.productcompare.entity.WorkspaceChange;
+import com.productcompare.entity.WorkspaceChangeType;
 import com.productcompare.exception.DuplicateStoreException;
+import com.productcompare.repository.CatalogBatchWriter;
+import com.productcompare.repository.CellKey;
 import com.productcompare.repository.FeatureRepository;
 import com.productcompare.repository.FeatureValueRepository;
+import com.productcompare.repository.FeatureValueRow;
+import com.productcompare.repository.FeatureValueVersionView;
+import com.productcompare.repository.LatestFeatureValueRepository;
+import com.productcompare.repository.ProductBestPriceRepository;
 import com.productcompare.repository.ProductRepository;
 import com.productcompare.repository.StorePriceRepository;
+import com.productcompare.repository.StoredValueView;
+import com.productcompare.repository.UserWorkspaceRepository;
+import com.productcompare.repository.WorkspaceChangeRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,13 +35,20 @@ import org.springframework.web.server.ResponseStatusException;
 import java.time.LocalDateTime;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
@@ -47,21 +69,53 @@ public class ProductService {
             "Operating System"
     );
 
+    private static final int DEFAULT_WINDOW_LIMIT = 100;
+    private static final int MAX_WINDOW_LIMIT = 1000;
+    private static final int MAX_COMPARE_PRODUCTS = 50;
+    private static final int MAX_CHANGE_FEED_ENTRIES = 2000;
+
     private final ProductRepository productRepository;
     private final FeatureRepository featureRepository;
     private final FeatureValueRepository featureValueRepository;
     private final StorePriceRepository storePriceRepository;
+    private final LatestFeatureValueRepository latestFeatureValueRepository;
+    private final UserWorkspaceRepository userWorkspaceRepository;
+    private final ComparisonMatrixCache comparisonMatrixCache;
+    private final WorkspaceChangeRepository workspaceChangeRepository;
+    private final ValueNormalizer valueNormalizer;
+    private final SimilarProductIndex similarProductIndex;
+    private final ProductBestPriceRepository productBestPriceRepository;
+    private final CatalogBatchWriter catalogBatchWriter;
+    private final WorkspaceRevisionLog workspaceRevisionLog;
 
     public ProductService(
             ProductRepository productRepository,
             FeatureRepository featureRepository,
             FeatureValueRepository featureValueRepository,
-            StorePriceRepository storePriceRepository
+            StorePriceRepository storePriceRepository,
+            LatestFeatureValueRepository latestFeatureValueRepository,
+            UserWorkspaceRepository userWorkspaceRepository,
+            ComparisonMatrixCache comparisonMatrixCache,
+            WorkspaceChangeRepository workspaceChangeRepository,
+            ValueNormalizer valueNormalizer,
+            SimilarProductIndex similarProductIndex,
+            ProductBestPriceRepository productBestPriceRepository,
+            CatalogBatchWriter catalogBatchWriter,
+            WorkspaceRevisionLog workspaceRevisionLog
     ) {
         this.productRepository = productRepository;
         this.featureRepository = featureRepository;
         this.featureValueRepository = featureValueRepository;
         this.storePriceRepository = storePriceRepository;
+        this.latestFeatureValueRepository = latestFeatureValueRepository;
+        this.userWorkspaceRepository = userWorkspaceRepository;
+        this.comparisonMatrixCache = comparisonMatrixCache;
+        this.workspaceChangeRepository = workspaceChangeRepository;
+        this.valueNormalizer = valueNormalizer;
+        this.similarProductIndex = similarProductIndex;
+        this.productBestPriceRepository = productBestPriceRepository;
+        this.catalogBatchWriter = catalogBatchWriter;
+        this.workspaceRevisionLog = workspaceRevisionLog;
     }
 
     @Transactional
@@ -92,6 +146,9 @@ public class ProductService {
         storePrice.setBuyLink(request.getBuyLink().trim());
 
         com.productcompare.entity.StorePrice saved = storePriceRepository.save(storePrice);
+        markProductChanged(product.getId());
+        recordStorePriceSaved(workspace.getId(), product.getId(), saved, true);
+        markWorkspaceChanged(workspace.getId(), List.of(change(workspace, WorkspaceChangeType.STORE_PRICE, product.getId(), null)));
         return toStorePriceResponse(saved);
     }
 
@@ -104,6 +161,21 @@ public class ProductService {
                 .toList();
     }
 
+    /**
+     * Best offers of many products in one indexed read, cheapest first. Products without any store are left out.
+     */
+    @Transactional(readOnly = true)
+    public List<BestPriceResponse> getBestPrices(UserWorkspace workspace, List<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = limitIds(new ArrayList<>(new LinkedHashSet<>(productIds)), "ids");
+        return productBestPriceRepository.findByWorkspaceIdAndProductIdInOrderByPriceAscProductIdAsc(workspace.getId(), ids)
+                .stream()
+                .map(best -> new BestPriceResponse(best.getProductId(), best.getPrice(), best.getStoreName(), best.getStoreCount()))
+                .toList();
+    }
+
     @Transactional
     public StorePriceResponse updateStorePrice(UserWorkspace workspace, Long productId, Long storePriceId, StorePriceRequest request) {
         Product product = getProduct(workspace.getId(), productId);
@@ -135,6 +207,9 @@ public class ProductService {
         storePrice.setBuyLink(request.getBuyLink().trim());
 
         com.productcompare.entity.StorePrice saved = storePriceRepository.save(storePrice);
+        markProductChanged(product.getId());
+        recordStorePriceSaved(workspace.getId(), product.getId(), saved, false);
+        markWorkspaceChanged(workspace.getId(), List.of(change(workspace, WorkspaceChangeType.STORE_PRICE, product.getId(), null)));
         return toStorePriceResponse(saved);
     }
 
@@ -146,6 +221,9 @@ public class ProductService {
             throw new ResponseStatusException(BAD_REQUEST, "productId does not match store price productId");
         }
         storePriceRepository.delete(storePrice);
+        markProductChanged(product.getId());
+        recordStorePriceRemoved(workspace.getId(), product.getId(), storePrice);
+        markWorkspaceChanged(workspace.getId(), List.of(change(workspace, WorkspaceChangeType.STORE_PRICE, product.getId(), null)));
     }
 
     @Transactional
@@ -158,30 +236,147 @@ public class ProductService {
         product.setImageUrl(request.getImageUrl() != null ? request.getImageUrl().trim() : null);
         product.setWorkspace(workspace);
         Product saved = productRepository.save(product);
+        similarProductIndex.recordProduct(workspace.getId(), saved.getId(), saved.getName(), saved.getCategory());
 
-        saveProductFeatures(workspace, saved, request);
+        List<WorkspaceChange> changes = new ArrayList<>();
+        changes.add(change(workspace, WorkspaceChangeType.PRODUCT, saved.getId(), null));
+        saveProductFeatures(workspace, saved, request, changes);
+        markWorkspaceChanged(workspace.getId(), changes);
 
         return new ItemResponse(saved.getId(), saved.getName());
     }
 
+    /**
+     * Imports one chunk of a bulk upload in one transaction. Features are resolved once for the chunk,
+     * products and their values are written as JDBC batches, and the chunk's changes are logged with it.
+     * Rows that fail validation are reported and skipped without failing the rest of the chunk.
+     */
+    @Transactional
+    public ProductImportResponse importProductChunk(UserWorkspace workspace, List<ProductImportRow> rows) {
+        List<ImportRowErrorResponse> errors = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (ProductImportRow row : rows) {
+            String name = row.request().getName();
+            if (name != null && !name.isBlank()) {
+                names.add(name.trim());
+            }
+        }
+        Set<String> existingNames = new HashSet<>();
+        if (!names.isEmpty()) {
+            for (String name : productRepository.findNamesByWorkspaceIdAndNameIn(workspace.getId(), names)) {
+                existingNames.add(name.toLowerCase());
+            }
+        }
+
+        Map<String, Feature> featuresByName = new HashMap<>();
+        for (Feature feature : featureRepository.findByWorkspaceIdOrderByNameAsc(workspace.getId())) {
+            featuresByName.put(feature.getName().trim().toLowerCase(), feature);
+        }
+        Map<String, String> newFeatureNames = new LinkedHashMap<>();
+
+        List<Product> products = new ArrayList<>();
+        List<Map<String, String>> cellsByProduct = new ArrayList<>();
+        for (ProductImportRow row : rows) {
+            try {
+                ProductRequest request = row.request();
+                validateName(request.getName(), "Product name");
+                if (existingNames.contains(request.getName().trim().toLowerCase())) {
+                    throw new ResponseStatusException(BAD_REQUEST, "Product already exists");
+                }
+
+                Map<String, String> cells = importCells(request);
+                for (Map.Entry<String, String> cell : cells.entrySet()) {
+                    validateFeatureValue(cell.getKey(), cell.getValue());
+                }
+
+                Product product = new Product();
+                product.setName(request.getName().trim());
+                product.setCategory(request.getCategory() != null ? request.getCategory().trim() : null);
+                product.setPrice(request.getPrice());
+                product.setImageUrl(request.getImageUrl() != null ? request.getImageUrl().trim() : null);
+                products.add(product);
+                cellsByProduct.add(cells);
+                existingNames.add(product.getName().toLowerCase());
+                for (String featureName : cells.keySet()) {
+                    String key = featureName.toLowerCase();
+                    if (!featuresByName.containsKey(key)) {
+                        newFeatureNames.putIfAbsent(key, featureName);
+                    }
+                }
+            } catch (ResponseStatusException exception) {
+                errors.add(new ImportRowErrorResponse(row.row(), exception.getReason()));
+            }
+        }
+        if (products.isEmpty()) {
+            return new ProductImportResponse(0, 0, errors.size(), errors);
+        }
+
+        List<Feature> createdFeatures = new ArrayList<>();
+        for (String featureName : newFeatureNames.values()) {
+            Feature feature = new Feature();
+            feature.setName(featureName);
+            feature.setImportance(1);
+            feature.setWorkspace(workspace);
+            createdFeatures.add(feature);
+        }
+        for (Feature feature : featureRepository.saveAll(createdFeatures)) {
+            featuresByName.put(feature.getName().toLowerCase(), feature);
+        }
+
+        List<Long> productIds = catalogBatchWriter.insertProducts(workspace.getId(), products);
+        LocalDateTime now = LocalDateTime.now();
+        List<FeatureValueRow> values = new ArrayList<>();
+        List<LatestFeatureValue> latestValues = new ArrayList<>();
+        for (int i = 0; i < products.size(); i++) {
+            Long productId = productIds.get(i);
+            for (Map.Entry<String, String> cell : cellsByProduct.get(i).entrySet()) {
+                Long featureId = featuresByName.get(cell.getKey().toLowerCase()).getId();
+                ValueNormalizer.NormalizedValue number = valueNormalizer.normalize(cell.getValue());
+                // Imported products are new, so every cell starts its history at version 1.
+                values.add(new FeatureValueRow(
+                        productId,
+                        featureId,
+                        cell.getValue(),
+                        1,
+                        now,
+                        number.numericValue(),
+                        number.unit(),
+                        number.status()
+                ));
+                LatestFeatureValue latest = new LatestFeatureValue(workspace.getId(), productId, featureId);
+                applyLatestValue(latest, null, cell.getValue(), number, 1, now);
+                latestValues.add(latest);
+            }
+        }
+        catalogBatchWriter.insertFeatureValues(values);
+        catalogBatchWriter.insertLatestValues(latestValues);
+
+        similarProductIndex.recordInvalidation(workspace.getId());
+        markWorkspaceChanged(workspace.getId(), List.of(change(workspace, WorkspaceChangeType.SNAPSHOT, null, null)));
+        return new ProductImportResponse(products.size(), values.size(), errors.size(), errors);
+    }
+
     @Transactional(readOnly = true)
     public ProductDetailsResponse getProductById(UserWorkspace workspace, Long productId) {
         Product product = getProduct(workspace.getId(), productId);
         List<Feature> workspaceFeatures = featureRepository.findByWorkspaceIdOrderByNameAsc(workspace.getId());
 
+        Map<Long, LatestFeatureValue> latestByFeature = new HashMap<>();
+        for (LatestFeatureValue latest : latestFeatureValueRepository.findByProductId(product.getId())) {
+            latestByFeature.put(latest.getFeatureId(), latest);
+        }
+
         String buyLink = null;
         List<ProductFeatureResponse> productFeatures = new ArrayList<>();
 
         for (Feature feature : workspaceFeatures) {
-            List<FeatureValue> latest = featureValueRepository
-                    .findTop2ByProductIdAndFeatureIdOrderByVersionDesc(product.getId(), feature.getId());
-
-            if (latest.isEmpty()) {
+            LatestFeatureValue latest = latestByFeature.get(feature.getId());
+            if (latest == null) {
                 continue;
             }
 
-            String storedValue = latest.get(0).getValue();
-            if (isLinkFeature(feature.getName())) {
+            String storedValue = latest.getValue();
+            if (FeatureKinds.isLink(feature.getName())) {
                 buyLink = storedValue;
                 continue;
             }
@@ -242,8 +437,12 @@ public class ProductService {
         product.setPrice(request.getPrice());
         product.setImageUrl(request.getImageUrl() != null ? request.getImageUrl().trim() : null);
         Product saved = productRepository.save(product);
+        similarProductIndex.recordProduct(workspace.getId(), saved.getId(), saved.getName(), saved.getCategory());
 
-        saveProductFeatures(workspace, saved, request);
+        List<WorkspaceChange> changes = new ArrayList<>();
+        changes.add(change(workspace, WorkspaceChangeType.PRODUCT, saved.getId(), null));
+        saveProductFeatures(workspace, saved, request, changes);
+        markWorkspaceChanged(workspace.getId(), changes);
 
         return new ItemResponse(saved.getId(), saved.getName());
     }
@@ -252,7 +451,11 @@ public class ProductService {
     public void deleteProduct(UserWorkspace workspace, Long productId) {
         Product product = getProduct(workspace.getId(), productId);
         featureValueRepository.deleteByProductId(product.getId());
+        latestFeatureValueRepository.deleteByProductId(product.getId());
+        productBestPriceRepository.deleteById(product.getId());
         productRepository.delete(product);
+        similarProductIndex.recordProductRemoved(workspace.getId(), product.getId());
+        markWorkspaceChanged(workspace.getId(), List.of(change(workspace, WorkspaceChangeType.PRODUCT_REMOVED, product.getId(), null)));
     }
 
     @Transactional
@@ -263,6 +466,7 @@ public class ProductService {
         feature.setImportance(1);
         feature.setWorkspace(workspace);
         Feature saved = featureRepository.save(feature);
+        markWorkspaceChanged(workspace.getId(), List.of(change(workspace, WorkspaceChangeType.FEATURE, null, saved.getId())));
         return new ItemResponse(saved.getId(), saved.getName());
     }
 
@@ -273,15 +477,20 @@ public class ProductService {
                 .map(item -> item.getName().trim().toLowerCase())
                 .collect(java.util.stream.Collectors.toSet());
 
+        List<WorkspaceChange> changes = new ArrayList<>();
         for (String defaultFeature : DEFAULT_FEATURES) {
             if (!existingNames.contains(defaultFeature.toLowerCase())) {
                 Feature feature = new Feature();
                 feature.setName(defaultFeature);
                 feature.setImportance(1);
                 feature.setWorkspace(workspace);
-                featureRepository.save(feature);
+                Feature saved = featureRepository.save(feature);
+                changes.add(change(workspace, WorkspaceChangeType.FEATURE, null, saved.getId()));
             }
         }
+        if (!changes.isEmpty()) {
+            markWorkspaceChanged(workspace.getId(), changes);
+        }
 
         return featureRepository.findByWorkspaceIdOrderByNameAsc(workspace.getId())
                 .stream()
@@ -303,6 +512,9 @@ public class ProductService {
         Feature feature = getFeature(workspace.getId(), featureId);
         feature.setName(request.name().trim());
         Feature saved = featureRepository.save(feature);
+        // A rename can turn an attribute into a quantity or back, which changes how its values are indexed.
+        similarProductIndex.recordInvalidation(workspace.getId());
+        markWorkspaceChanged(workspace.getId(), List.of(change(workspace, WorkspaceChangeType.FEATURE, null, saved.getId())));
         return new ItemResponse(saved.getId(), saved.getName());
     }
 
@@ -310,11 +522,111 @@ public class ProductService {
     public void deleteFeature(UserWorkspace workspace, Long featureId) {
         Feature feature = getFeature(workspace.getId(), featureId);
         featureValueRepository.deleteByFeatureId(feature.getId());
+        latestFeatureValueRepository.deleteByFeatureId(feature.getId());
         featureRepository.delete(feature);
+        similarProductIndex.recordInvalidation(workspace.getId());
+        markWorkspaceChanged(workspace.getId(), List.of(change(workspace, WorkspaceChangeType.FEATURE_REMOVED, null, feature.getId())));
     }
 
     @Transactional
     public FeatureValueCellResponse updateFeatureValue(UserWorkspace workspace, Long productId, Long featureId, ValueRequest request) {
+        FeatureValueCellResponse updated = writeFeatureValue(workspace, productId, featureId, request);
+        markWorkspaceChanged(workspace.getId(), List.of(change(workspace, WorkspaceChangeType.CELL, productId, featureId)));
+        return updated;
+    }
+
+    /**
+     * Applies many cell edits, such as a block pasted from a spreadsheet, as one write. Every cell is validated
+     * before anything is stored, the current versions of all affected cells come from one query, and the new
+     * history rows go out as a JDBC batch. All cells are logged with the batch.
+     */
+    @Transactional
+    public List<FeatureValueResponse> updateFeatureValues(UserWorkspace workspace, List<FeatureValueUpdateRequest> updates) {
+        if (updates == null || updates.isEmpty()) {
+            throw new ResponseStatusException(BAD_REQUEST, "At least one cell is required");
+        }
+        if (updates.size() > MAX_WINDOW_LIMIT) {
+            throw new ResponseStatusException(BAD_REQUEST, "At most " + MAX_WINDOW_LIMIT + " cells can be updated at once");
+        }
+
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> featureIds = new HashSet<>();
+        Set<CellKey> cells = new LinkedHashSet<>();
+        for (FeatureValueUpdateRequest update : updates) {
+            if (update == null || update.productId() == null || update.featureId() == null) {
+                throw new ResponseStatusException(BAD_REQUEST, "productId and featureId are required");
+            }
+            validateName(update.value(), "Feature value");
+            if (!cells.add(new CellKey(update.productId(), update.featureId()))) {
+                throw new ResponseStatusException(BAD_REQUEST, "Each cell can be updated once per request");
+            }
+            productIds.add(update.productId());
+            featureIds.add(update.featureId());
+        }
+
+        if (productRepository.findByWorkspaceIdAndIdInOrderByNameAsc(workspace.getId(), productIds).size() != productIds.size()) {
+            throw new ResponseStatusException(NOT_FOUND, "Product not found");
+        }
+        Map<Long, Feature> featuresById = new HashMap<>();
+        for (Feature feature : featureRepository.findByWorkspaceIdAndIdInOrderByNameAsc(workspace.getId(), featureIds)) {
+            featuresById.put(feature.getId(), feature);
+        }
+        if (featuresById.size() != featureIds.size()) {
+            throw new ResponseStatusException(NOT_FOUND, "Feature not found");
+        }
+        for (FeatureValueUpdateRequest update : updates) {
+            validateFeatureValue(featuresById.get(update.featureId()).getName(), update.value().trim());
+        }
+
+        Map<CellKey, LatestFeatureValue> latestByCell = lockVersionCounters(workspace.getId(), cells);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<FeatureValueRow> values = new ArrayList<>(updates.size());
+        List<WorkspaceChange> changes = new ArrayList<>(updates.size());
+        List<FeatureValueResponse> responses = new ArrayList<>(updates.size());
+        for (FeatureValueUpdateRequest update : updates) {
+            String value = update.value().trim();
+            ValueNormalizer.NormalizedValue number = valueNormalizer.normalize(value);
+            LatestFeatureValue latest = latestByCell.get(new CellKey(update.productId(), update.featureId()));
+            String previousValue = latest.getVersion() == 0 ? null : latest.getValue();
+            int version = latest.getVersion() + 1;
+
+            values.add(new FeatureValueRow(
+                    update.productId(),
+                    update.featureId(),
+                    value,
+                    version,
+                    now,
+                    number.numericValue(),
+                    number.unit(),
+                    number.status()
+            ));
+            // The locked projection rows are managed and flush as updates on commit.
+            applyLatestValue(latest, previousValue, value, number, version, now);
+            similarProductIndex.recordValue(
+                    workspace.getId(),
+                    update.productId(),
+                    update.featureId(),
+                    featuresById.get(update.featureId()).getName(),
+                    latest.getValue(),
+                    latest.getNumericValue()
+            );
+            changes.add(change(workspace, WorkspaceChangeType.CELL, update.productId(), update.featureId()));
+            responses.add(new FeatureValueResponse(
+                    update.productId(),
+                    update.featureId(),
+                    latest.getValue(),
+                    latest.isChanged(),
+                    latest.getTrend()
+            ));
+        }
+        catalogBatchWriter.insertFeatureValues(values);
+
+        markWorkspaceChanged(workspace.getId(), changes);
+        return responses;
+    }
+
+    private FeatureValueCellResponse writeFeatureValue(UserWorkspace workspace, Long productId, Long featureId, ValueRequest request) {
         String requestedValue = request == null ? null : request.value();
         validateName(requestedValue, "Feature value");
         Product product = getProduct(workspace.getId(), productId);
@@ -325,12 +637,11 @@ public class ProductService {
 
         String normalizedValue = requestedValue.trim();
         validateFeatureValue(feature.getName(), normalizedValue);
+        ValueNormalizer.NormalizedValue number = valueNormalizer.normalize(normalizedValue);
 
-        List<FeatureValue> recent = featureValueRepository
-                .findTop2ByProductIdAndFeatureIdOrderByVersionDesc(product.getId(), feature.getId());
-
-        int nextVersion = recent.isEmpty() ? 1 : recent.get(0).getVersion() + 1;
-        String previousValue = recent.isEmpty() ? null : recent.get(0).getValue();
+        LatestFeatureValue latest = lockVersionCounter(workspace.getId(), product.getId(), feature.getId());
+        int nextVersion = latest.getVersion() + 1;
+        String previousValue = latest.getVersion() == 0 ? null : latest.getValue();
 
         FeatureValue current = new FeatureValue();
         current.setProduct(product);
@@ -338,10 +649,58 @@ public class ProductService {
         current.setValue(normalizedValue);
         current.setVersion(nextVersion);
         current.setUpdatedAt(LocalDateTime.now());
+        current.setNumericValue(number.numericValue());
+        current.setNumericUnit(number.unit());
+        current.setNumericStatus(number.status());
         featureValueRepository.save(current);
 
-        String trend = resolveTrend(previousValue, current.getValue());
-        return new FeatureValueCellResponse(product.getId(), current.getValue(), previousValue != null && !previousValue.equals(current.getValue()), trend);
+        applyLatestValue(latest, previousValue, current.getValue(), number, current.getVersion(), current.getUpdatedAt());
+        similarProductIndex.recordValue(
+                workspace.getId(),
+                product.getId(),
+                feature.getId(),
+                feature.getName(),
+                latest.getValue(),
+                latest.getNumericValue()
+        );
+
+        return new FeatureValueCellResponse(product.getId(), latest.getValue(), latest.isChanged(), latest.getTrend());
+    }
+
+    /**
+     * Locks the cell's latest_feature_value row, which doubles as its version counter, so concurrent writers of one
+     * cell take turns and each gets the next version. The row is upserted before it is read: a locking read of a
+     * missing row would take a gap lock that two first writers can both hold, and their inserts would then deadlock.
+     */
+    private LatestFeatureValue lockVersionCounter(Long workspaceId, Long productId, Long featureId) {
+        catalogBatchWriter.insertVersionCounters(workspaceId, List.of(new CellKey(productId, featureId)));
+        return latestFeatureValueRepository.findForUpdate(productId, featureId)
+                .orElseThrow(() -> new IllegalStateException("Version counter missing for cell " + productId + "/" + featureId));
+    }
+
+    /**
+     * Batch form of {@link #lockVersionCounter}. Rows are upserted and then locked in (product, feature) order,
+     * one query per product, so only the edited cells are locked and overlapping batches cannot deadlock.
+     */
+    private Map<CellKey, LatestFeatureValue> lockVersionCounters(Long workspaceId, Set<CellKey> cells) {
+        List<CellKey> ordered = new ArrayList<>(cells);
+        ordered.sort(Comparator.comparing(CellKey::productId).thenComparing(CellKey::featureId));
+        catalogBatchWriter.insertVersionCounters(workspaceId, ordered);
+
+        Map<Long, List<Long>> featureIdsByProduct = new TreeMap<>();
+        for (CellKey cell : ordered) {
+            featureIdsByProduct.computeIfAbsent(cell.productId(), key -> new ArrayList<>()).add(cell.featureId());
+        }
+        Map<CellKey, LatestFeatureValue> latestByCell = new HashMap<>();
+        featureIdsByProduct.forEach((productId, featureIds) -> {
+            for (LatestFeatureValue latest : latestFeatureValueRepository.findForUpdate(productId, featureIds)) {
+                latestByCell.put(new CellKey(latest.getProductId(), latest.getFeatureId()), latest);
+            }
+        });
+        if (latestByCell.size() != cells.size()) {
+            throw new IllegalStateException("Version counters missing for " + (cells.size() - latestByCell.size()) + " cells");
+        }
+        return latestByCell;
     }
 
     @Transactional(readOnly = true)
@@ -355,59 +714,269 @@ public class ProductService {
         List<FeatureValueHistoryResponse> history = new ArrayList<>();
         String previous = null;
         for (FeatureValue value : values) {
-            String trend = resolveTrend(previous, value.getValue());
-            boolean changed = previous != null && !previous.equals(value.getValue());
-            history.add(new FeatureValueHistoryResponse(
-                    product.getId(),
-                    feature.getId(),
-                    value.getVersion(),
-                    value.getValue(),
-                    changed,
-                    trend,
-                    value.getUpdatedAt()
-            ));
+            history.add(toHistoryResponse(product.getId(), feature.getId(), previous, value.getVersion(), value.getValue(), value.getUpdatedAt()));
             previous = value.getValue();
         }
         return history;
     }
 
+    /**
+     * Keyset-paged form of {@link #getFeatureValueHistory}: versions older than {@code beforeVersion}, newest first.
+     * The version at the cursor is read along with the page so the first entry's changed and trend flags match
+     * what the unpaged history reports.
+     */
+    @Transactional(readOnly = true)
+    public FeatureValueHistoryPageResponse getFeatureValueHistoryPage(
+            UserWorkspace workspace,
+            Long productId,
+            Long featureId,
+            Integer limit,
+            Integer beforeVersion
+    ) {
+        int pageSize = resolveWindowLimit(limit, "limit");
+        if (beforeVersion != null && beforeVersion < 1) {
+            throw new ResponseStatusException(BAD_REQUEST, "beforeVersion must be positive");
+        }
+        Product product = getProduct(workspace.getId(), productId);
+        Feature feature = getFeature(workspace.getId(), featureId);
+
+        // Up to one row for the cursor, the page, and one more to tell whether another page follows.
+        List<FeatureValueVersionView> rows = featureValueRepository.findVersionsFrom(
+                product.getId(),
+                feature.getId(),
+                beforeVersion == null ? Integer.MAX_VALUE : beforeVersion,
+                Limit.of(pageSize + 2)
+        );
+
+        int start = 0;
+        String previous = null;
+        if (beforeVersion != null && !rows.isEmpty() && rows.get(0).getVersion() == beforeVersion) {
+            previous = rows.get(0).getValue();
+            start = 1;
+        }
+        int end = Math.min(rows.size(), start + pageSize);
+
+        List<FeatureValueHistoryResponse> versions = new ArrayList<>(end - start);
+        for (FeatureValueVersionView row : rows.subList(start, end)) {
+            versions.add(toHistoryResponse(product.getId(), feature.getId(), previous, row.getVersion(), row.getValue(), row.getUpdatedAt()));
+            previous = row.getValue();
+        }
+        Integer nextBeforeVersion = rows.size() > end ? versions.get(versions.size() - 1).version() : null;
+        return new FeatureValueHistoryPageResponse(versions, nextBeforeVersion);
+    }
+
+    private FeatureValueHistoryResponse toHistoryResponse(
+            Long productId,
+            Long featureId,
+            String previous,
+            int version,
+            String value,
+            LocalDateTime updatedAt
+    ) {
+        boolean changed = previous != null && !previous.equals(value);
+        return new FeatureValueHistoryResponse(productId, featureId, version, value, changed, resolveTrend(previous, value), updatedAt);
+    }
+
     @Transactional
     public void deleteFeatureValueHistory(UserWorkspace workspace, Long productId, Long featureId) {
         Product product = getProduct(workspace.getId(), productId);
         Feature feature = getFeature(workspace.getId(), featureId);
         featureValueRepository.deleteByProductIdAndFeatureId(product.getId(), feature.getId());
+        latestFeatureValueRepository.deleteByProductIdAndFeatureId(product.getId(), feature.getId());
+        similarProductIndex.recordValueRemoved(workspace.getId(), product.getId(), feature.getId());
+        markWorkspaceChanged(workspace.getId(), List.of(change(workspace, WorkspaceChangeType.CELL, product.getId(), feature.getId())));
     }
 
     @Transactional(readOnly = true)
     public ComparisonResponse getComparison(UserWorkspace workspace) {
+        long revision = currentRevision(workspace.getId());
+        ComparisonMatrix matrix = comparisonMatrixCache.get(workspace.getId(), revision);
+        if (matrix == null) {
+            matrix = buildComparisonMatrix(workspace);
+            comparisonMatrixCache.put(workspace.getId(), revision, matrix);
+        }
+        return matrix.toResponse();
+    }
+
+    private ComparisonMatrix buildComparisonMatrix(UserWorkspace workspace) {
         List<Product> products = productRepository.findByWorkspaceIdOrderByNameAsc(workspace.getId());
         List<Feature> features = featureRepository.findByWorkspaceIdOrderByNameAsc(workspace.getId());
 
-        List<ItemResponse> productItems = products.stream().map(p -> new ItemResponse(p.getId(), p.getName())).toList();
-        List<ItemResponse> featureItems = features.stream().map(f -> new ItemResponse(f.getId(), f.getName())).toList();
+        ComparisonMatrix.Builder builder = ComparisonMatrix.builder(products, features);
+        for (LatestFeatureValue latest : latestFeatureValueRepository.findByWorkspaceId(workspace.getId())) {
+            builder.cell(latest.getProductId(), latest.getFeatureId(), latest.getValue(), latest.isChanged(), latest.getTrend());
+        }
+        return builder.build();
+    }
 
-        List<ComparisonRowResponse> rows = new ArrayList<>();
-        Map<Long, Map<Long, FeatureValueCellResponse>> latestCellMap = new HashMap<>();
+    /**
+     * Returns what changed in the comparison grid after {@code sinceRevision}: products and features that were
+     * added or renamed, removed ids, and the current value of every touched cell. Every revision has at least one
+     * log entry, so a gap right after {@code sinceRevision} means the log was trimmed and a full reload is signalled.
+     */
+    @Transactional(readOnly = true)
+    public ComparisonChangesResponse getComparisonChanges(UserWorkspace workspace, long sinceRevision) {
+        long revision = currentRevision(workspace.getId());
+        if (sinceRevision == revision) {
+            return new ComparisonChangesResponse(revision, false, List.of(), List.of(), List.of(), List.of(), List.of());
+        }
+        if (sinceRevision < 0 || sinceRevision > revision) {
+            return ComparisonChangesResponse.snapshotRequired(revision);
+        }
 
-        for (Product product : products) {
-            Map<Long, FeatureValueCellResponse> featureCells = new HashMap<>();
-            for (Feature feature : features) {
-                List<FeatureValue> latest = featureValueRepository
-                        .findTop2ByProductIdAndFeatureIdOrderByVersionDesc(product.getId(), feature.getId());
-                if (!latest.isEmpty()) {
-                    String previous = latest.size() > 1 ? latest.get(1).getValue() : null;
-                    FeatureValue current = latest.get(0);
-                    featureCells.put(feature.getId(), new FeatureValueCellResponse(
-                            product.getId(),
-                            current.getValue(),
-                            previous != null && !previous.equals(current.getValue()),
-                            resolveTrend(previous, current.getValue())
-                    ));
+        List<WorkspaceChange> changes = workspaceChangeRepository.findByWorkspaceIdAndRevisionGreaterThanOrderByRevisionAscIdAsc(
+                workspace.getId(),
+                sinceRevision,
+                Limit.of(MAX_CHANGE_FEED_ENTRIES + 1)
+        );
+        if (changes.isEmpty() || changes.get(0).getRevision() != sinceRevision + 1 || changes.size() > MAX_CHANGE_FEED_ENTRIES
+                || changes.stream().anyMatch(change -> change.getType() == WorkspaceChangeType.SNAPSHOT)) {
+            return ComparisonChangesResponse.snapshotRequired(revision);
+        }
+
+        Set<Long> productIds = new LinkedHashSet<>();
+        Set<Long> removedProductIds = new LinkedHashSet<>();
+        Set<Long> featureIds = new LinkedHashSet<>();
+        Set<Long> removedFeatureIds = new LinkedHashSet<>();
+        Set<CellKey> cellKeys = new LinkedHashSet<>();
+        for (WorkspaceChange change : changes) {
+            switch (change.getType()) {
+                case PRODUCT -> productIds.add(change.getProductId());
+                case PRODUCT_REMOVED -> {
+                    productIds.remove(change.getProductId());
+                    removedProductIds.add(change.getProductId());
+                }
+                case FEATURE -> featureIds.add(change.getFeatureId());
+                case FEATURE_REMOVED -> {
+                    featureIds.remove(change.getFeatureId());
+                    removedFeatureIds.add(change.getFeatureId());
                 }
+                case CELL -> cellKeys.add(new CellKey(change.getProductId(), change.getFeatureId()));
+                case STORE_PRICE, SNAPSHOT -> {
+                }
+            }
+        }
+        cellKeys.removeIf(key -> removedProductIds.contains(key.productId()) || removedFeatureIds.contains(key.featureId()));
+
+        List<ItemResponse> products = productIds.isEmpty()
+                ? List.of()
+                : productRepository.findByWorkspaceIdAndIdInOrderByNameAsc(workspace.getId(), productIds)
+                        .stream()
+                        .map(product -> new ItemResponse(product.getId(), product.getName()))
+                        .toList();
+        List<ItemResponse> features = featureIds.isEmpty()
+                ? List.of()
+                : featureRepository.findByWorkspaceIdAndIdInOrderByNameAsc(workspace.getId(), featureIds)
+                        .stream()
+                        .map(feature -> new ItemResponse(feature.getId(), feature.getName()))
+                        .toList();
+
+        List<ComparisonCellChangeResponse> cells = new ArrayList<>(cellKeys.size());
+        if (!cellKeys.isEmpty()) {
+            Set<Long> cellProductIds = new HashSet<>();
+            Set<Long> cellFeatureIds = new HashSet<>();
+            for (CellKey key : cellKeys) {
+                cellProductIds.add(key.productId());
+                cellFeatureIds.add(key.featureId());
+            }
+
+            Map<CellKey, LatestFeatureValue> latestByCell = new HashMap<>();
+            for (LatestFeatureValue latest : latestFeatureValueRepository.findByWorkspaceIdAndProductIdInAndFeatureIdIn(
+                    workspace.getId(), cellProductIds, cellFeatureIds)) {
+                latestByCell.put(new CellKey(latest.getProductId(), latest.getFeatureId()), latest);
+            }
+
+            for (CellKey key : cellKeys) {
+                LatestFeatureValue latest = latestByCell.get(key);
+                if (latest == null) {
+                    cells.add(new ComparisonCellChangeResponse(key.productId(), key.featureId(), "-", false, "same"));
+                } else {
+                    cells.add(new ComparisonCellChangeResponse(
+                            key.productId(), key.featureId(), latest.getValue(), latest.isChanged(), latest.getTrend()));
+                }
+            }
+        }
+
+        return new ComparisonChangesResponse(
+                revision,
+                false,
+                products,
+                features,
+                List.copyOf(removedProductIds),
+                List.copyOf(removedFeatureIds),
+                cells
+        );
+    }
+
+    /**
+     * Loads one window of the comparison matrix: a slice of products and a slice of features,
+     * each chosen by explicit ids or by a keyset cursor over the name ordering.
+     * Only the cells inside the window are read.
+     */
+    @Transactional(readOnly = true)
+    public ComparisonSliceResponse getComparisonSlice(UserWorkspace workspace, ComparisonWindowRequest window) {
+        Long workspaceId = workspace.getId();
+
+        List<Product> products;
+        String nextProductCursor = null;
+        if (!window.hasProductWindow()) {
+            products = productRepository.findByWorkspaceIdOrderByNameAsc(workspaceId);
+        } else if (window.getProductIds() != null) {
+            products = productRepository.findByWorkspaceIdAndIdInOrderByNameAsc(workspaceId, limitIds(window.getProductIds(), "productIds"));
+        } else {
+            int limit = resolveWindowLimit(window.getProductLimit(), "productLimit");
+            String after = decodeCursor(window.getProductCursor(), "productCursor");
+            products = after == null
+                    ? productRepository.findByWorkspaceIdOrderByNameAsc(workspaceId, Limit.of(limit + 1))
+                    : productRepository.findByWorkspaceIdAndNameGreaterThanOrderByNameAsc(workspaceId, after, Limit.of(limit + 1));
+            if (products.size() > limit) {
+                products = products.subList(0, limit);
+                nextProductCursor = encodeCursor(products.get(limit - 1).getName());
             }
-            latestCellMap.put(product.getId(), featureCells);
         }
 
+        List<Feature> features;
+        String nextFeatureCursor = null;
+        if (!window.hasFeatureWindow()) {
+            features = featureRepository.findByWorkspaceIdOrderByNameAsc(workspaceId);
+        } else if (window.getFeatureIds() != null) {
+            features = featureRepository.findByWorkspaceIdAndIdInOrderByNameAsc(workspaceId, limitIds(window.getFeatureIds(), "featureIds"));
+        } else {
+            int limit = resolveWindowLimit(window.getFeatureLimit(), "featureLimit");
+            String after = decodeCursor(window.getFeatureCursor(), "featureCursor");
+            features = after == null
+                    ? featureRepository.findByWorkspaceIdOrderByNameAsc(workspaceId, Limit.of(limit + 1))
+                    : featureRepository.findByWorkspaceIdAndNameGreaterThanOrderByNameAsc(workspaceId, after, Limit.of(limit + 1));
+            if (features.size() > limit) {
+                features = features.subList(0, limit);
+                nextFeatureCursor = encodeCursor(features.get(limit - 1).getName());
+            }
+        }
+
+        Map<Long, Map<Long, FeatureValueCellResponse>> latestCellMap = new HashMap<>();
+        if (!products.isEmpty() && !features.isEmpty()) {
+            latestCellMap = toCellMap(latestFeatureValueRepository.findByWorkspaceIdAndProductIdInAndFeatureIdIn(
+                    workspaceId,
+                    products.stream().map(Product::getId).toList(),
+                    features.stream().map(Feature::getId).toList()
+            ));
+        }
+
+        return new ComparisonSliceResponse(
+                products.stream().map(p -> new ItemResponse(p.getId(), p.getName())).toList(),
+                features.stream().map(f -> new ItemResponse(f.getId(), f.getName())).toList(),
+                buildRows(products, features, latestCellMap),
+                nextProductCursor,
+                nextFeatureCursor
+        );
+    }
+
+    private List<ComparisonRowResponse> buildRows(
+            List<Product> products,
+            List<Feature> features,
+            Map<Long, Map<Long, FeatureValueCellResponse>> latestCellMap
+    ) {
+        List<ComparisonRowResponse> rows = new ArrayList<>();
         for (Feature feature : features) {
             List<FeatureValueCellResponse> cells = new ArrayList<>();
             for (Product product : products) {
@@ -420,8 +989,7 @@ public class ProductService {
             }
             rows.add(new ComparisonRowResponse(feature.getId(), feature.getName(), cells));
         }
-
-        return new ComparisonResponse(productItems, featureItems, rows);
+        return rows;
     }
 
     @Transactional(readOnly = true)
@@ -433,16 +1001,17 @@ public class ProductService {
             throw new ResponseStatusException(BAD_REQUEST, "productA and productB must be different");
         }
 
-        Product left = getProduct(workspace.getId(), productA);
-        Product right = getProduct(workspace.getId(), productB);
+        RecommendationContext context = loadRecommendationContext(workspace, productA, productB);
+        Product left = context.product(productA);
+        Product right = context.product(productB);
 
         int leftPoints = 0;
         int rightPoints = 0;
         List<String> leftReasons = new ArrayList<>();
         List<String> rightReasons = new ArrayList<>();
 
-        StoreMetric leftStorePrice = getBestStorePrice(left.getId());
-        StoreMetric rightStorePrice = getBestStorePrice(right.getId());
+        StoreMetric leftStorePrice = getBestStorePrice(context, left.getId());
+        StoreMetric rightStorePrice = getBestStorePrice(context, right.getId());
 
         if (leftStorePrice.price != null && rightStorePrice.price != null) {
             if (leftStorePrice.price < rightStorePrice.price) {
@@ -454,8 +1023,8 @@ public class ProductService {
             }
         }
 
-        Double leftRam = getNumericFeatureValue(workspace, left.getId(), "ram");
-        Double rightRam = getNumericFeatureValue(workspace, right.getId(), "ram");
+        Double leftRam = getNumericFeatureValue(context, left.getId(), "ram");
+        Double rightRam = getNumericFeatureValue(context, right.getId(), "ram");
         if (leftRam != null && rightRam != null) {
             if (leftRam > rightRam) {
                 leftPoints++;
@@ -466,8 +1035,8 @@ public class ProductService {
             }
         }
 
-        Double leftBattery = getNumericFeatureValue(workspace, left.getId(), "battery");
-        Double rightBattery = getNumericFeatureValue(workspace, right.getId(), "battery");
+        Double leftBattery = getNumericFeatureValue(context, left.getId(), "battery");
+        Double rightBattery = getNumericFeatureValue(context, right.getId(), "battery");
         if (leftBattery != null && rightBattery != null) {
             if (leftBattery > rightBattery) {
                 leftPoints++;
@@ -507,75 +1076,99 @@ public class ProductService {
             throw new ResponseStatusException(BAD_REQUEST, "p1 and p2 must be different");
         }
 
+        return compareProducts(List.of(p1, p2));
+    }
+
+    /**
+     * Side-by-side comparison of any number of products, possibly from different workspaces.
+     * Products, their workspace features and their latest values are each loaded with one query,
+     * and features are matched across workspaces by case-insensitive name.
+     */
+    @Transactional(readOnly = true)
+    public ComparisonResponse compareProducts(List<Long> productIds) {
+        log.info("Public compare request received: ids={}", productIds);
+
+        if (productIds == null || productIds.size() < 2) {
+            throw new ResponseStatusException(BAD_REQUEST, "At least two product ids are required");
+        }
+        if (productIds.size() > MAX_COMPARE_PRODUCTS) {
+            throw new ResponseStatusException(BAD_REQUEST, "At most " + MAX_COMPARE_PRODUCTS + " products can be compared");
+        }
+        if (productIds.stream().anyMatch(Objects::isNull)) {
+            throw new ResponseStatusException(BAD_REQUEST, "Product ids must not be empty");
+        }
+        if (new HashSet<>(productIds).size() != productIds.size()) {
+            throw new ResponseStatusException(BAD_REQUEST, "Product ids must be different");
+        }
+
         try {
-            Product product1 = productRepository.findById(p1)
-                    .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Product not found: " + p1));
-            Product product2 = productRepository.findById(p2)
-                    .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Product not found: " + p2));
+            Map<Long, Product> productsById = new HashMap<>();
+            for (Product product : productRepository.findAllWithWorkspaceByIdIn(productIds)) {
+                productsById.put(product.getId(), product);
+            }
 
-            if (product1.getWorkspace() == null || product2.getWorkspace() == null) {
-                throw new ResponseStatusException(BAD_REQUEST, "Products must belong to a valid workspace");
+            List<Product> products = new ArrayList<>();
+            for (Long productId : productIds) {
+                Product product = productsById.get(productId);
+                if (product == null) {
+                    throw new ResponseStatusException(NOT_FOUND, "Product not found: " + productId);
+                }
+                if (product.getWorkspace() == null) {
+                    throw new ResponseStatusException(BAD_REQUEST, "Products must belong to a valid workspace");
+                }
+                products.add(product);
             }
 
-            List<Product> products = List.of(product1, product2);
             List<ItemResponse> productItems = products.stream()
                     .map(product -> new ItemResponse(product.getId(), product.getName()))
                     .toList();
 
-            Map<Long, List<Feature>> featuresByWorkspace = new HashMap<>();
-            featuresByWorkspace.put(product1.getWorkspace().getId(), featureRepository.findByWorkspaceIdOrderByNameAsc(product1.getWorkspace().getId()));
-            if (!product1.getWorkspace().getId().equals(product2.getWorkspace().getId())) {
-                featuresByWorkspace.put(product2.getWorkspace().getId(), featureRepository.findByWorkspaceIdOrderByNameAsc(product2.getWorkspace().getId()));
-            }
-
-            Map<String, ItemResponse> featureItemsByName = new LinkedHashMap<>();
-            for (List<Feature> workspaceFeatures : featuresByWorkspace.values()) {
-                if (workspaceFeatures == null || workspaceFeatures.isEmpty()) {
-                    continue;
-                }
-                for (Feature feature : workspaceFeatures) {
-                    if (feature == null || feature.getName() == null || feature.getName().isBlank()) {
-                        continue;
-                    }
-                    String normalizedName = feature.getName().trim().toLowerCase();
-                    featureItemsByName.putIfAbsent(normalizedName, new ItemResponse(feature.getId(), feature.getName()));
-                }
+            // Workspaces keep the order in which their first product was requested.
+            Set<Long> workspaceIds = new LinkedHashSet<>();
+            for (Product product : products) {
+                workspaceIds.add(product.getWorkspace().getId());
             }
+            FeatureNameIndex featureIndex = new FeatureNameIndex(
+                    workspaceIds,
+                    featureRepository.findByWorkspaceIdInOrderByNameAsc(workspaceIds)
+            );
 
-            List<ItemResponse> featureItems = featureItemsByName.values().stream()
+            List<ItemResponse> featureItems = featureIndex.mergedFeatures().stream()
+                    .map(feature -> new ItemResponse(feature.getId(), feature.getName()))
                     .sorted(Comparator.comparing(ItemResponse::name, String.CASE_INSENSITIVE_ORDER))
                     .toList();
 
+            Map<Long, Map<Long, LatestFeatureValue>> latestByProduct = new HashMap<>();
+            for (LatestFeatureValue latest : latestFeatureValueRepository.findByProductIdIn(productIds)) {
+                latestByProduct.computeIfAbsent(latest.getProductId(), id -> new HashMap<>()).put(latest.getFeatureId(), latest);
+            }
+
             List<ComparisonRowResponse> rows = new ArrayList<>();
             for (ItemResponse featureItem : featureItems) {
                 List<FeatureValueCellResponse> cells = new ArrayList<>();
+                String normalizedName = FeatureNameIndex.normalize(featureItem.name());
 
                 for (Product product : products) {
-                    List<Feature> workspaceFeatures = featuresByWorkspace.getOrDefault(product.getWorkspace().getId(), List.of());
-                    Feature matchingFeature = workspaceFeatures.stream()
-                            .filter(feature -> feature.getName() != null && feature.getName().equalsIgnoreCase(featureItem.name()))
-                            .findFirst()
-                            .orElse(null);
+                    Feature matchingFeature = featureIndex.find(product.getWorkspace().getId(), normalizedName);
 
                     if (matchingFeature == null) {
                         cells.add(new FeatureValueCellResponse(product.getId(), "-", false, "same"));
                         continue;
                     }
 
-                    List<FeatureValue> latest = featureValueRepository
-                            .findTop2ByProductIdAndFeatureIdOrderByVersionDesc(product.getId(), matchingFeature.getId());
-                    if (latest == null || latest.isEmpty()) {
+                    LatestFeatureValue latest = latestByProduct.getOrDefault(product.getId(), Map.of())
+                            .get(matchingFeature.getId());
+                    if (latest == null) {
                         cells.add(new FeatureValueCellResponse(product.getId(), "-", false, "same"));
                         continue;
                     }
 
-                    String previous = latest.size() > 1 ? latest.get(1).getValue() : null;
-                    String current = latest.get(0).getValue();
+                    String current = latest.getValue();
                     cells.add(new FeatureValueCellResponse(
                             product.getId(),
                             current == null || current.isBlank() ? "-" : current,
-                            previous != null && !previous.equals(current),
-                            resolveTrend(previous, current)
+                            latest.isChanged(),
+                            latest.getTrend()
                     ));
                 }
 
@@ -584,33 +1177,247 @@ public class ProductService {
 
             return new ComparisonResponse(productItems, featureItems, rows);
         } catch (ResponseStatusException exception) {
-            log.warn("Compare validation failed for p1={}, p2={}: {}", p1, p2, exception.getReason());
+            log.warn("Compare validation failed for ids={}: {}", productIds, exception.getReason());
             throw exception;
         } catch (Exception exception) {
-            log.error("Unexpected error while building comparison for p1={}, p2={}", p1, p2, exception);
+            log.error("Unexpected error while building comparison for ids={}", productIds, exception);
             throw exception;
         }
     }
 
+    /**
+     * Rebuilds missing latest-value rows for a workspace from its version history.
+     * Cells that already have a projection row are left untouched.
+     */
+    @Transactional
+    public int backfillLatestFeatureValues(Long workspaceId) {
+        Set<String> existing = new HashSet<>();
+        for (LatestFeatureValue latest : latestFeatureValueRepository.findByWorkspaceId(workspaceId)) {
+            existing.add(latest.getProductId() + ":" + latest.getFeatureId());
+        }
+
+        List<LatestFeatureValue> missing = new ArrayList<>();
+        List<FeatureValueVersionView> versions = featureValueRepository.findLatestTwoVersionsByWorkspaceId(workspaceId);
+
+        // Rows arrive grouped by cell with the newest version first, so each cell spans at most two rows.
+        for (int i = 0; i < versions.size(); i++) {
+            FeatureValueVersionView current = versions.get(i);
+            String previous = null;
+            if (i + 1 < versions.size()) {
+                FeatureValueVersionView next = versions.get(i + 1);
+                if (next.getProductId().equals(current.getProductId()) && next.getFeatureId().equals(current.getFeatureId())) {
+                    previous = next.getValue();
+                    i++;
+                }
+            }
+
+            if (existing.contains(current.getProductId() + ":" + current.getFeatureId())) {
+                continue;
+            }
+
+            LatestFeatureValue latest = new LatestFeatureValue(workspaceId, current.getProductId(), current.getFeatureId());
+            applyLatestValue(
+                    latest,
+                    previous,
+                    current.getValue(),
+                    valueNormalizer.normalize(current.getValue()),
+                    current.getVersion(),
+                    current.getUpdatedAt()
+            );
+            missing.add(latest);
+        }
+
+        latestFeatureValueRepository.saveAll(missing);
+        return missing.size();
+    }
+
+    /**
+     * Normalizes the numeric columns of the next batch of feature_value rows written before they existed
+     * or before units were normalized.
+     * Returns the last id handled, to pass back as {@code afterId}, or null once nothing is left.
+     */
+    @Transactional
+    public Long backfillFeatureValueNumbers(Long afterId, int batchSize) {
+        List<StoredValueView> rows = featureValueRepository.findUnparsedValues(afterId, Limit.of(batchSize));
+        for (StoredValueView row : rows) {
+            ValueNormalizer.NormalizedValue number = valueNormalizer.normalize(row.getValue());
+            featureValueRepository.updateNumericValue(row.getId(), number.numericValue(), number.unit(), number.status());
+        }
+        return rows.isEmpty() ? null : rows.get(rows.size() - 1).getId();
+    }
+
+    /**
+     * Same as {@link #backfillFeatureValueNumbers} for the latest_feature_value projection.
+     */
+    @Transactional
+    public Long backfillLatestFeatureValueNumbers(Long afterId, int batchSize) {
+        List<LatestFeatureValue> rows = latestFeatureValueRepository
+                .findUnparsedAfter(afterId, Limit.of(batchSize));
+        for (LatestFeatureValue latest : rows) {
+            ValueNormalizer.NormalizedValue number = valueNormalizer.normalize(latest.getValue());
+            latest.setNumericValue(number.numericValue());
+            latest.setNumericUnit(number.unit());
+            latest.setNumericStatus(number.status());
+        }
+        return rows.isEmpty() ? null : rows.get(rows.size() - 1).getId();
+    }
+
+    /**
+     * Creates the missing product_best_price rows of the next batch of products that have store prices.
+     * Returns the last product id handled, to pass back as {@code afterId}, or null once nothing is left.
+     */
+    @Transactional
+    public Long backfillProductBestPrices(Long afterId, int batchSize) {
+        List<Long> productIds = storePriceRepository.findProductIdsWithoutBestPrice(afterId, Limit.of(batchSize));
+        for (Product product : productRepository.findAllWithWorkspaceByIdIn(productIds)) {
+            rebuildBestPrice(product.getWorkspace().getId(), product.getId());
+        }
+        return productIds.isEmpty() ? null : productIds.get(productIds.size() - 1);
+    }
+
+    private Map<Long, Map<Long, FeatureValueCellResponse>> toCellMap(List<LatestFeatureValue> latestValues) {
+        Map<Long, Map<Long, FeatureValueCellResponse>> latestCellMap = new HashMap<>();
+        for (LatestFeatureValue latest : latestValues) {
+            latestCellMap.computeIfAbsent(latest.getProductId(), id -> new HashMap<>())
+                    .put(latest.getFeatureId(), new FeatureValueCellResponse(
+                            latest.getProductId(),
+                            latest.getValue(),
+                            latest.isChanged(),
+                            latest.getTrend()
+                    ));
+        }
+        return latestCellMap;
+    }
+
+    private void applyLatestValue(
+            LatestFeatureValue latest,
+            String previousValue,
+            String value,
+            ValueNormalizer.NormalizedValue number,
+            int version,
+            LocalDateTime updatedAt
+    ) {
+        latest.setPreviousValue(previousValue);
+        latest.setValue(value);
+        latest.setNumericValue(number.numericValue());
+        latest.setNumericUnit(number.unit());
+        latest.setNumericStatus(number.status());
+        latest.setVersion(version);
+        latest.setChanged(previousValue != null && !previousValue.equals(value));
+        latest.setTrend(resolveTrend(previousValue, value));
+        latest.setUpdatedAt(updatedAt);
+    }
+
+    private int resolveWindowLimit(Integer limit, String fieldName) {
+        if (limit == null) {
+            return DEFAULT_WINDOW_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_WINDOW_LIMIT) {
+            throw new ResponseStatusException(BAD_REQUEST, fieldName + " must be between 1 and " + MAX_WINDOW_LIMIT);
+        }
+        return limit;
+    }
+
+    private List<Long> limitIds(List<Long> ids, String fieldName) {
+        if (ids.size() > MAX_WINDOW_LIMIT) {
+            throw new ResponseStatusException(BAD_REQUEST, fieldName + " accepts at most " + MAX_WINDOW_LIMIT + " ids");
+        }
+        return ids;
+    }
+
+    private String encodeCursor(String name) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String decodeCursor(String cursor, String fieldName) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(BAD_REQUEST, fieldName + " is not a valid cursor");
+        }
+    }
+
+    /**
+     * Cheap indexed lookup backing the ETag of workspace-scoped reads such as the comparison and product list.
+     */
+    @Transactional(readOnly = true)
+    public long getWorkspaceRevision(UserWorkspace workspace) {
+        return currentRevision(workspace.getId());
+    }
+
+    /**
+     * Revision of a single product's store prices, used as the ETag of its stores listing.
+     */
+    @Transactional(readOnly = true)
+    public long getProductRevision(UserWorkspace workspace, Long productId) {
+        return productRepository.findRevisionByIdAndWorkspaceId(productId, workspace.getId())
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Product not found"));
+    }
+
+    private long currentRevision(Long workspaceId) {
+        return userWorkspaceRepository.findRevisionById(workspaceId)
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Workspace not found"));
+    }
+
+    /**
+     * Logs the write's changes with its transaction; they get a new workspace revision, which supersedes cached
+     * matrices built before the write, once the write commits. Writers of different cells never wait on each other
+     * for the shared workspace row.
+     */
+    private void markWorkspaceChanged(Long workspaceId, List<WorkspaceChange> changes) {
+        workspaceRevisionLog.record(workspaceId, changes);
+    }
+
+    private static WorkspaceChange change(UserWorkspace workspace, WorkspaceChangeType type, Long productId, Long featureId) {
+        return new WorkspaceChange(workspace.getId(), type, productId, featureId);
+    }
+
+    private void markProductChanged(Long productId) {
+        productRepository.incrementRevision(productId);
+    }
+
     private Product getProduct(Long workspaceId, Long productId) {
         return productRepository.findByIdAndWorkspaceId(productId, workspaceId)
                 .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Product not found"));
     }
 
-    private Double getNumericFeatureValue(UserWorkspace workspace, Long productId, String featureKeyword) {
-        List<Feature> allFeatures = featureRepository.findByWorkspaceIdOrderByNameAsc(workspace.getId());
-        for (Feature feature : allFeatures) {
+    /**
+     * Loads the recommendation inputs in four queries, however many features or stores the workspace has.
+     */
+    private RecommendationContext loadRecommendationContext(UserWorkspace workspace, Long productA, Long productB) {
+        List<Long> productIds = List.of(productA, productB);
+        List<Product> products = productRepository.findByWorkspaceIdAndIdInOrderByNameAsc(workspace.getId(), productIds);
+        if (products.size() != productIds.size()) {
+            throw new ResponseStatusException(NOT_FOUND, "Product not found");
+        }
+
+        return new RecommendationContext(
+                products,
+                featureRepository.findByWorkspaceIdOrderByNameAsc(workspace.getId()),
+                latestFeatureValueRepository.findByProductIdIn(productIds),
+                productBestPriceRepository.findByProductIdIn(productIds)
+        );
+    }
+
+    private Double getNumericFeatureValue(RecommendationContext context, Long productId, String featureKeyword) {
+        for (Feature feature : context.features()) {
             if (!feature.getName().toLowerCase().contains(featureKeyword.toLowerCase())) {
                 continue;
             }
 
-            List<FeatureValue> values = featureValueRepository
-                    .findTop2ByProductIdAndFeatureIdOrderByVersionDesc(productId, feature.getId());
-            if (values.isEmpty()) {
+            LatestFeatureValue latest = context.latestValue(productId, feature.getId());
+            if (latest == null) {
                 continue;
             }
 
-            Double number = extractNumber(values.get(0).getValue());
+            // Rows written before values were normalized are read here until the backfill reaches them.
+            boolean pendingBackfill = latest.getNumericStatus() == null || latest.getNumericStatus() == NumericParseStatus.PARSED;
+            Double number = pendingBackfill
+                    ? valueNormalizer.normalize(latest.getValue()).numericValue()
+                    : latest.getNumericValue();
             if (number != null) {
                 return number;
             }
@@ -619,42 +1426,91 @@ public class ProductService {
         return null;
     }
 
-    private StoreMetric getBestStorePrice(Long productId) {
-        List<com.productcompare.entity.StorePrice> stores = storePriceRepository.findByProductIdOrderByStoreNameAsc(productId);
-        double bestPrice = Double.MAX_VALUE;
-        String bestStore = null;
+    private StoreMetric getBestStorePrice(RecommendationContext context, Long productId) {
+        ProductBestPrice best = context.bestPrice(productId);
+        if (best == null) {
+            return new StoreMetric(null, null);
+        }
+        return new StoreMetric(best.getPrice().doubleValue(), best.getStoreName());
+    }
 
-        for (com.productcompare.entity.StorePrice store : stores) {
-            if (store.getPrice() == null) {
-                continue;
-            }
-            double value = store.getPrice().doubleValue();
-            if (value < bestPrice) {
-                bestPrice = value;
-                bestStore = store.getStoreName();
-            }
+    /**
+     * Moves the product's best-price row along with an added or updated store price. The product's store rows
+     * are only read again when the cheapest store got more expensive. Callers hold the product row lock.
+     */
+    private void recordStorePriceSaved(Long workspaceId, Long productId, com.productcompare.entity.StorePrice saved, boolean added) {
+        ProductBestPrice best = productBestPriceRepository.findForUpdate(productId).orElse(null);
+        if (best == null) {
+            rebuildBestPrice(workspaceId, productId);
+            return;
         }
 
-        if (bestStore == null) {
-            return new StoreMetric(null, null);
+        if (added) {
+            best.setStoreCount(best.getStoreCount() + 1);
+        }
+        boolean wasBest = saved.getId().equals(best.getStorePriceId());
+        boolean unchangedBest = wasBest
+                && saved.getPrice().compareTo(best.getPrice()) == 0
+                && saved.getStoreName().equalsIgnoreCase(best.getStoreName());
+        if (unchangedBest || isCheaper(saved, best)) {
+            applyBestStore(best, saved);
+        } else if (wasBest) {
+            storePriceRepository.findFirstByProductIdOrderByPriceAscStoreNameAsc(productId)
+                    .ifPresent(cheapest -> applyBestStore(best, cheapest));
         }
-        return new StoreMetric(bestPrice, bestStore);
+        productBestPriceRepository.save(best);
     }
 
-    private Double extractNumber(String rawValue) {
-        if (rawValue == null) {
-            return null;
+    private void recordStorePriceRemoved(Long workspaceId, Long productId, com.productcompare.entity.StorePrice removed) {
+        ProductBestPrice best = productBestPriceRepository.findForUpdate(productId).orElse(null);
+        if (best == null || best.getStoreCount() <= 1) {
+            rebuildBestPrice(workspaceId, productId);
+            return;
         }
-        String cleaned = rawValue.replaceAll("[^0-9.]", " ").trim();
-        if (cleaned.isEmpty()) {
-            return null;
+
+        best.setStoreCount(best.getStoreCount() - 1);
+        if (removed.getId().equals(best.getStorePriceId())) {
+            com.productcompare.entity.StorePrice cheapest = storePriceRepository
+                    .findFirstByProductIdOrderByPriceAscStoreNameAsc(productId)
+                    .orElse(null);
+            if (cheapest == null) {
+                productBestPriceRepository.delete(best);
+                return;
+            }
+            applyBestStore(best, cheapest);
         }
-        String firstToken = cleaned.split("\\\\s+")[0];
-        try {
-            return Double.parseDouble(firstToken);
-        } catch (NumberFormatException ignored) {
-            return null;
+        productBestPriceRepository.save(best);
+    }
+
+    /**
+     * Recomputes a product's best-price row from its store rows, for products whose row is missing or
+     * whose last store is going away.
+     */
+    private void rebuildBestPrice(Long workspaceId, Long productId) {
+        com.productcompare.entity.StorePrice cheapest = storePriceRepository
+                .findFirstByProductIdOrderByPriceAscStoreNameAsc(productId)
+                .orElse(null);
+        if (cheapest == null) {
+            productBestPriceRepository.deleteById(productId);
+            return;
         }
+
+        ProductBestPrice best = productBestPriceRepository.findById(productId)
+                .orElseGet(() -> new ProductBestPrice(productId, workspaceId));
+        applyBestStore(best, cheapest);
+        best.setStoreCount((int) storePriceRepository.countByProductId(productId));
+        productBestPriceRepository.save(best);
+    }
+
+    private static boolean isCheaper(com.productcompare.entity.StorePrice store, ProductBestPrice best) {
+        int byPrice = store.getPrice().compareTo(best.getPrice());
+        return byPrice < 0 || (byPrice == 0 && store.getStoreName().compareToIgnoreCase(best.getStoreName()) < 0);
+    }
+
+    private static void applyBestStore(ProductBestPrice best, com.productcompare.entity.StorePrice store) {
+        best.setStorePriceId(store.getId());
+        best.setStoreName(store.getStoreName());
+        best.setPrice(store.getPrice());
     }
 
     private static class StoreMetric {
@@ -672,15 +1528,16 @@ public class ProductService {
                 .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Store price not found"));
     }
 
-    private void saveProductFeatures(UserWorkspace workspace, Product saved, ProductRequest request) {
+    private void saveProductFeatures(UserWorkspace workspace, Product saved, ProductRequest request, List<WorkspaceChange> changes) {
         if (request.getBuyLink() != null && !request.getBuyLink().trim().isEmpty()) {
-            Feature purchaseLinkFeature = findOrCreateFeature(workspace, "Purchase Link");
-            updateFeatureValue(
+            Feature purchaseLinkFeature = findOrCreateFeature(workspace, "Purchase Link", changes);
+            writeFeatureValue(
                     workspace,
                     saved.getId(),
                     purchaseLinkFeature.getId(),
                     new ValueRequest(request.getBuyLink().trim())
             );
+            changes.add(change(workspace, WorkspaceChangeType.CELL, saved.getId(), purchaseLinkFeature.getId()));
         }
 
         if (request.getFeatures() == null || request.getFeatures().isEmpty()) {
@@ -700,19 +1557,47 @@ public class ProductService {
                 continue;
             }
 
-            Feature feature = findOrCreateFeature(workspace, featureName);
+            Feature feature = findOrCreateFeature(workspace, featureName, changes);
             String encodedValue = encodeFeatureValue(featureValue, featurePrice);
 
-            updateFeatureValue(
+            writeFeatureValue(
                     workspace,
                     saved.getId(),
                     feature.getId(),
                     new ValueRequest(encodedValue)
             );
+            changes.add(change(workspace, WorkspaceChangeType.CELL, saved.getId(), feature.getId()));
+        }
+    }
+
+    /**
+     * The cells an imported product gets, keyed by trimmed feature name, with the same encoding
+     * {@link #saveProductFeatures} uses. Feature names match case-insensitively, as they do in the database,
+     * and a feature named twice keeps its last value.
+     */
+    private Map<String, String> importCells(ProductRequest request) {
+        Map<String, String> cells = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (request.getBuyLink() != null && !request.getBuyLink().trim().isEmpty()) {
+            cells.put("Purchase Link", request.getBuyLink().trim());
+        }
+        if (request.getFeatures() == null) {
+            return cells;
         }
+        for (ProductFeatureRequest featureRequest : request.getFeatures()) {
+            if (featureRequest == null) {
+                continue;
+            }
+            String featureName = featureRequest.getName() == null ? "" : featureRequest.getName().trim();
+            String featureValue = featureRequest.getValue() == null ? "" : featureRequest.getValue().trim();
+            if (featureName.isEmpty() || featureValue.isEmpty()) {
+                continue;
+            }
+            cells.put(featureName, encodeFeatureValue(featureValue, featureRequest.getPrice()));
+        }
+        return cells;
     }
 
-    private Feature findOrCreateFeature(UserWorkspace workspace, String name) {
+    private Feature findOrCreateFeature(UserWorkspace workspace, String name, List<WorkspaceChange> changes) {
         return featureRepository
                 .findByWorkspaceIdAndNameIgnoreCase(workspace.getId(), name)
                 .orElseGet(() -> {
@@ -720,7 +1605,9 @@ public class ProductService {
                     feature.setName(name.trim());
                     feature.setImportance(1);
                     feature.setWorkspace(workspace);
-                    return featureRepository.save(feature);
+                    Feature saved = featureRepository.save(feature);
+                    changes.add(change(workspace, WorkspaceChangeType.FEATURE, null, saved.getId()));
+                    return saved;
                 });
     }
 
@@ -758,7 +1645,7 @@ public class ProductService {
     }
 
     private void validateFeatureValue(String featureName, String value) {
-        if (!isLinkFeature(featureName)) {
+        if (!FeatureKinds.isLink(featureName)) {
             return;
         }
 
@@ -773,15 +1660,6 @@ public class ProductService {
         throw new ResponseStatusException(BAD_REQUEST, "Feature value must be a valid URL for link features");
     }
 
-    private boolean isLinkFeature(String featureName) {
-        String normalized = featureName == null ? "" : featureName.trim().toLowerCase();
-        return normalized.contains("link")
-                || normalized.contains("url")
-                || normalized.contains("buy")
-                || normalized.contains("purchase")
-                || normalized.contains("store");
-    }
-
     private URI toUriOrNull(String value) {
         try {
             URI uri = new URI(value);
@@ -800,6 +1678,13 @@ public class ProductService {
         if (oldValue == null || oldValue.equals(newValue)) {
             return "same";
         }
+
+        ValueNormalizer.NormalizedValue oldNumber = valueNormalizer.normalize(oldValue);
+        ValueNormalizer.NormalizedValue newNumber = valueNormalizer.normalize(newValue);
+        if (oldNumber.isComparableTo(newNumber)) {
+            int order = Double.compare(newNumber.amount(), oldNumber.amount());
+            return order > 0 ? "up" : order < 0 ? "down" : "same";
+        }
         return newValue.compareToIgnoreCase(oldValue) > 0 ? "up" : "down";
     }
 
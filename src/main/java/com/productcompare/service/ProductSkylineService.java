@@ -0,0 +1,264 @@
+package com.productcompare.service;
+
+import com.productcompare.dto.SkylineProductResponse;
+import com.productcompare.dto.SkylineResponse;
+import com.productcompare.entity.Feature;
+import com.productcompare.entity.Product;
+import com.productcompare.entity.UserWorkspace;
+import com.productcompare.repository.FeatureRepository;
+import com.productcompare.repository.LatestFeatureValueRepository;
+import com.productcompare.repository.NumericCellView;
+import com.productcompare.repository.ProductBestPriceRepository;
+import com.productcompare.repository.ProductPriceView;
+import com.productcompare.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+/**
+ * Finds the Pareto frontier of a workspace: the products no other product matches or beats on every selected
+ * criterion while beating it on at least one. Criteria are numeric features plus, optionally, the best store price.
+ * Directions come from {@link FeatureDirection} and feature kinds from {@link FeatureKinds}, both shared with
+ * {@link ProductRankingService}: link and categorical features cannot be criteria, and a feature's values
+ * outside its dominant unit count as missing.
+ * <p>
+ * Uses sort-filter-skyline over a product-major {@code double[]}: products are visited by descending sum of
+ * normalized values, so a product can only be dominated by one visited before it and the window of skyline
+ * candidates rarely shrinks.
+ */
+@Service
+public class ProductSkylineService {
+
+    static final String BEST_PRICE_CRITERION = "Best price";
+    private static final int MAX_CRITERIA = 16;
+
+    private final ProductRepository productRepository;
+    private final FeatureRepository featureRepository;
+    private final LatestFeatureValueRepository latestFeatureValueRepository;
+    private final ProductBestPriceRepository productBestPriceRepository;
+
+    public ProductSkylineService(
+            ProductRepository productRepository,
+            FeatureRepository featureRepository,
+            LatestFeatureValueRepository latestFeatureValueRepository,
+            ProductBestPriceRepository productBestPriceRepository
+    ) {
+        this.productRepository = productRepository;
+        this.featureRepository = featureRepository;
+        this.latestFeatureValueRepository = latestFeatureValueRepository;
+        this.productBestPriceRepository = productBestPriceRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public SkylineResponse getSkyline(UserWorkspace workspace, List<Long> featureIds, boolean includeBestPrice) {
+        Set<Long> requestedFeatureIds = featureIds == null ? Set.of() : new LinkedHashSet<>(featureIds);
+        int dimensions = requestedFeatureIds.size() + (includeBestPrice ? 1 : 0);
+        if (dimensions == 0) {
+            throw new ResponseStatusException(BAD_REQUEST, "Select at least one feature or the best price");
+        }
+        if (dimensions > MAX_CRITERIA) {
+            throw new ResponseStatusException(BAD_REQUEST, "At most " + MAX_CRITERIA + " criteria can be compared");
+        }
+
+        List<Feature> features = requestedFeatureIds.isEmpty()
+                ? List.of()
+                : featureRepository.findByWorkspaceIdAndIdInOrderByNameAsc(workspace.getId(), requestedFeatureIds);
+        if (features.size() != requestedFeatureIds.size()) {
+            throw new ResponseStatusException(NOT_FOUND, "Feature not found");
+        }
+        for (Feature feature : features) {
+            if (!FeatureKinds.isMeasurable(feature.getName())) {
+                throw new ResponseStatusException(BAD_REQUEST, "Feature " + feature.getName() + " is not numeric");
+            }
+        }
+
+        List<String> criteria = new ArrayList<>(dimensions);
+        boolean[] lowerIsBetter = new boolean[dimensions];
+        Map<Long, Integer> featureDimensions = new HashMap<>(features.size() * 2);
+        for (int d = 0; d < features.size(); d++) {
+            Feature feature = features.get(d);
+            criteria.add(feature.getName());
+            lowerIsBetter[d] = FeatureDirection.isLowerBetter(feature.getName());
+            featureDimensions.put(feature.getId(), d);
+        }
+        if (includeBestPrice) {
+            criteria.add(BEST_PRICE_CRITERION);
+            lowerIsBetter[dimensions - 1] = true;
+        }
+
+        List<Product> products = productRepository.findByWorkspaceIdOrderByNameAsc(workspace.getId());
+        int productCount = products.size();
+        if (productCount == 0) {
+            return new SkylineResponse(criteria, List.of(), 0, 0);
+        }
+        Map<Long, Integer> productOrdinals = new HashMap<>(productCount * 2);
+        for (int p = 0; p < productCount; p++) {
+            productOrdinals.put(products.get(p).getId(), p);
+        }
+
+        // Product-major: the criteria of one product are contiguous, which is what the dominance check walks.
+        double[] values = new double[productCount * dimensions];
+        Arrays.fill(values, Double.NaN);
+        if (!featureDimensions.isEmpty()) {
+            List<NumericCellView> cells = latestFeatureValueRepository.findNumericCellsByWorkspaceIdAndFeatureIdIn(
+                    workspace.getId(), featureDimensions.keySet());
+            for (NumericCellView cell : FeatureKinds.inDominantUnit(cells)) {
+                Integer p = productOrdinals.get(cell.productId());
+                Integer d = featureDimensions.get(cell.featureId());
+                if (p != null && d != null) {
+                    values[p * dimensions + d] = cell.numericValue();
+                }
+            }
+        }
+        if (includeBestPrice) {
+            for (ProductPriceView price : productBestPriceRepository.findPricesByWorkspaceId(workspace.getId())) {
+                Integer p = productOrdinals.get(price.productId());
+                if (p != null) {
+                    values[p * dimensions + dimensions - 1] = price.price().doubleValue();
+                }
+            }
+        }
+
+        // A product missing any criterion cannot be compared on all of them, so it is left out rather than guessed.
+        int[] candidates = new int[productCount];
+        int candidateCount = 0;
+        for (int p = 0; p < productCount; p++) {
+            if (isComplete(values, p, dimensions)) {
+                candidates[candidateCount++] = p;
+            }
+        }
+
+        // Flip lower-is-better criteria so that larger is always better from here on.
+        for (int i = 0; i < candidateCount; i++) {
+            int offset = candidates[i] * dimensions;
+            for (int d = 0; d < dimensions; d++) {
+                if (lowerIsBetter[d]) {
+                    values[offset + d] = -values[offset + d];
+                }
+            }
+        }
+
+        int[] skyline = skyline(values, dimensions, candidates, candidateCount);
+        Arrays.sort(skyline);
+
+        List<SkylineProductResponse> response = new ArrayList<>(skyline.length);
+        for (int p : skyline) {
+            List<Double> productValues = new ArrayList<>(dimensions);
+            for (int d = 0; d < dimensions; d++) {
+                double value = values[p * dimensions + d];
+                productValues.add(lowerIsBetter[d] ? -value : value);
+            }
+            Product product = products.get(p);
+            response.add(new SkylineProductResponse(product.getId(), product.getName(), productValues));
+        }
+        return new SkylineResponse(criteria, response, candidateCount, productCount - candidateCount);
+    }
+
+    /**
+     * Returns the ordinals of the non-dominated candidates. {@code values} must already be oriented so that
+     * larger is better in every dimension.
+     */
+    static int[] skyline(double[] values, int dimensions, int[] candidates, int candidateCount) {
+        if (candidateCount == 0) {
+            return new int[0];
+        }
+
+        double[] low = new double[dimensions];
+        double[] high = new double[dimensions];
+        Arrays.fill(low, Double.POSITIVE_INFINITY);
+        Arrays.fill(high, Double.NEGATIVE_INFINITY);
+        for (int i = 0; i < candidateCount; i++) {
+            int offset = candidates[i] * dimensions;
+            for (int d = 0; d < dimensions; d++) {
+                low[d] = Math.min(low[d], values[offset + d]);
+                high[d] = Math.max(high[d], values[offset + d]);
+            }
+        }
+
+        // Sort keys pack the float bits of the negated normalized sum above the ordinal, so one primitive sort
+        // orders the candidates best-first without boxing. Float precision only affects the visiting order;
+        // the window below still drops members a later candidate turns out to dominate.
+        long[] order = new long[candidateCount];
+        for (int i = 0; i < candidateCount; i++) {
+            int p = candidates[i];
+            int offset = p * dimensions;
+            double sum = 0;
+            for (int d = 0; d < dimensions; d++) {
+                double range = high[d] - low[d];
+                if (range > 0) {
+                    sum += (values[offset + d] - low[d]) / range;
+                }
+            }
+            order[i] = ((long) sortableBits((float) -sum) << 32) | (p & 0xFFFFFFFFL);
+        }
+        Arrays.sort(order);
+
+        int[] window = new int[candidateCount];
+        int windowSize = 0;
+        for (long key : order) {
+            int p = (int) key;
+            boolean dominated = false;
+            int w = 0;
+            while (w < windowSize) {
+                int member = window[w];
+                if (dominates(values, member, p, dimensions)) {
+                    dominated = true;
+                    break;
+                }
+                if (dominates(values, p, member, dimensions)) {
+                    window[w] = window[--windowSize];
+                } else {
+                    w++;
+                }
+            }
+            if (!dominated) {
+                window[windowSize++] = p;
+            }
+        }
+        return Arrays.copyOf(window, windowSize);
+    }
+
+    private static boolean dominates(double[] values, int a, int b, int dimensions) {
+        int offsetA = a * dimensions;
+        int offsetB = b * dimensions;
+        boolean strictlyBetter = false;
+        for (int d = 0; d < dimensions; d++) {
+            double left = values[offsetA + d];
+            double right = values[offsetB + d];
+            if (left < right) {
+                return false;
+            }
+            if (left > right) {
+                strictlyBetter = true;
+            }
+        }
+        return strictlyBetter;
+    }
+
+    /** Maps a float to an int whose signed order matches the float order. */
+    private static int sortableBits(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+
+    private static boolean isComplete(double[] values, int p, int dimensions) {
+        int offset = p * dimensions;
+        for (int d = 0; d < dimensions; d++) {
+            if (Double.isNaN(values[offset + d])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,302 @@
+package com.productcompare.service;
+
+import com.productcompare.dto.SimilarProductResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feature vectors of one workspace's products, kept in memory so similar products can be found without
+ * touching the database. Numeric features are stored as canonical values and scaled by their range across
+ * the workspace at query time; the product category and attribute-like features (operating system, processor)
+ * are stored as dictionary codes and only count as equal or different.
+ * <p>
+ * Columns are contiguous {@code double}/{@code int} arrays indexed by product slot, so a query is a handful of
+ * tight loops over primitives rather than a scan of rows. Slots are compacted on removal.
+ */
+final class ProductVectors {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int CATEGORY_COLUMN = 0;
+    private static final int MISSING = -1;
+    private static final String PRICE_SEPARATOR = " ||price|| ";
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private long[] productIds = new long[INITIAL_CAPACITY];
+    private String[] productNames = new String[INITIAL_CAPACITY];
+    private int size;
+
+    private final Map<Long, Integer> numericColumns = new HashMap<>();
+    private double[][] numeric = new double[0][];
+    private double[] min = new double[0];
+    private double[] max = new double[0];
+    private boolean[] rangeStale = new boolean[0];
+
+    private final Map<Long, Integer> categoricalColumns = new HashMap<>();
+    private final Map<String, Integer> codes = new HashMap<>();
+    private int[][] categorical = {newCodeColumn(INITIAL_CAPACITY)};
+
+    synchronized void putProduct(Long productId, String name, String category) {
+        Integer slot = slots.get(productId);
+        if (slot == null) {
+            slot = size++;
+            ensureCapacity(size);
+            slots.put(productId, slot);
+            productIds[slot] = productId;
+        }
+        productNames[slot] = name;
+        categorical[CATEGORY_COLUMN][slot] = code(category);
+    }
+
+    synchronized void removeProduct(Long productId) {
+        Integer slot = slots.remove(productId);
+        if (slot == null) {
+            return;
+        }
+        for (int c = 0; c < numeric.length; c++) {
+            markStaleIfExtreme(c, numeric[c][slot]);
+        }
+
+        int last = --size;
+        if (slot != last) {
+            productIds[slot] = productIds[last];
+            productNames[slot] = productNames[last];
+            for (double[] column : numeric) {
+                column[slot] = column[last];
+            }
+            for (int[] column : categorical) {
+                column[slot] = column[last];
+            }
+            slots.put(productIds[slot], slot);
+        }
+        productNames[last] = null;
+        for (double[] column : numeric) {
+            column[last] = Double.NaN;
+        }
+        for (int[] column : categorical) {
+            column[last] = MISSING;
+        }
+    }
+
+    /**
+     * Records the current value of a cell. {@code numericValue} is the canonical value stored next to it,
+     * or null when the value is not a quantity.
+     */
+    synchronized void putValue(Long productId, Long featureId, String featureName, String value, Double numericValue) {
+        Integer slot = slots.get(productId);
+        if (slot == null || featureName == null || FeatureKinds.isLink(featureName)) {
+            return;
+        }
+
+        if (FeatureKinds.isCategorical(featureName)) {
+            int column = categoricalColumns.computeIfAbsent(featureId, id -> addCategoricalColumn());
+            categorical[column][slot] = code(stripPrice(value));
+            return;
+        }
+
+        Integer column = numericColumns.get(featureId);
+        if (column == null) {
+            if (numericValue == null) {
+                return;
+            }
+            column = addNumericColumn();
+            numericColumns.put(featureId, column);
+        }
+        setNumeric(column, slot, numericValue == null ? Double.NaN : numericValue);
+    }
+
+    synchronized void removeValue(Long productId, Long featureId) {
+        Integer slot = slots.get(productId);
+        if (slot == null) {
+            return;
+        }
+        Integer numericColumn = numericColumns.get(featureId);
+        if (numericColumn != null) {
+            setNumeric(numericColumn, slot, Double.NaN);
+        }
+        Integer categoricalColumn = categoricalColumns.get(featureId);
+        if (categoricalColumn != null) {
+            categorical[categoricalColumn][slot] = MISSING;
+        }
+    }
+
+    /**
+     * Returns the {@code limit} products closest to the given one, most similar first, or null when the
+     * product is not indexed. Similarity is one minus the mean per-column distance over the columns at least
+     * one of the two products has a value for; a value only one of them has counts as fully different.
+     * Products sharing no column with the query product are left out.
+     */
+    synchronized List<SimilarProductResponse> nearest(Long productId, int limit) {
+        Integer query = slots.get(productId);
+        if (query == null) {
+            return null;
+        }
+        refreshRanges();
+
+        double[] distance = new double[size];
+        int[] compared = new int[size];
+        for (int c = 0; c < numeric.length; c++) {
+            double[] column = numeric[c];
+            double target = column[query];
+            double range = max[c] - min[c];
+            boolean targetMissing = Double.isNaN(target);
+            for (int p = 0; p < size; p++) {
+                double value = column[p];
+                boolean valueMissing = Double.isNaN(value);
+                if (targetMissing && valueMissing) {
+                    continue;
+                }
+                compared[p]++;
+                if (targetMissing || valueMissing) {
+                    distance[p] += 1;
+                } else if (range > 0) {
+                    distance[p] += Math.abs(value - target) / range;
+                }
+            }
+        }
+        for (int[] column : categorical) {
+            int target = column[query];
+            for (int p = 0; p < size; p++) {
+                int code = column[p];
+                if (target == MISSING && code == MISSING) {
+                    continue;
+                }
+                compared[p]++;
+                if (code != target) {
+                    distance[p] += 1;
+                }
+            }
+        }
+
+        double[] scores = new double[size];
+        for (int p = 0; p < size; p++) {
+            scores[p] = p == query || compared[p] == 0
+                    ? Double.NEGATIVE_INFINITY
+                    : 1 - distance[p] / compared[p];
+        }
+
+        int[] ranked = ProductRankingService.topOrdinals(scores, Math.min(limit, size));
+        List<SimilarProductResponse> similar = new ArrayList<>(ranked.length);
+        for (int p : ranked) {
+            if (scores[p] == Double.NEGATIVE_INFINITY) {
+                break;
+            }
+            similar.add(new SimilarProductResponse(productIds[p], productNames[p], scores[p]));
+        }
+        return similar;
+    }
+
+    synchronized int productCount() {
+        return size;
+    }
+
+    synchronized int columnCount() {
+        return numeric.length + categorical.length;
+    }
+
+    private void setNumeric(int column, int slot, double value) {
+        double previous = numeric[column][slot];
+        numeric[column][slot] = value;
+        if (previous == value) {
+            return;
+        }
+        markStaleIfExtreme(column, previous);
+        if (!Double.isNaN(value) && !rangeStale[column]) {
+            min[column] = Math.min(min[column], value);
+            max[column] = Math.max(max[column], value);
+        }
+    }
+
+    /**
+     * Growing a range is exact in place; only losing the current minimum or maximum needs a rescan,
+     * which is deferred to the next query.
+     */
+    private void markStaleIfExtreme(int column, double previous) {
+        if (!Double.isNaN(previous) && (previous == min[column] || previous == max[column])) {
+            rangeStale[column] = true;
+        }
+    }
+
+    private void refreshRanges() {
+        for (int c = 0; c < numeric.length; c++) {
+            if (!rangeStale[c]) {
+                continue;
+            }
+            double low = Double.POSITIVE_INFINITY;
+            double high = Double.NEGATIVE_INFINITY;
+            double[] column = numeric[c];
+            for (int p = 0; p < size; p++) {
+                if (!Double.isNaN(column[p])) {
+                    low = Math.min(low, column[p]);
+                    high = Math.max(high, column[p]);
+                }
+            }
+            min[c] = low;
+            max[c] = high;
+            rangeStale[c] = false;
+        }
+    }
+
+    private int addNumericColumn() {
+        int column = numeric.length;
+        numeric = Arrays.copyOf(numeric, column + 1);
+        numeric[column] = new double[productIds.length];
+        Arrays.fill(numeric[column], Double.NaN);
+        min = Arrays.copyOf(min, column + 1);
+        max = Arrays.copyOf(max, column + 1);
+        rangeStale = Arrays.copyOf(rangeStale, column + 1);
+        min[column] = Double.POSITIVE_INFINITY;
+        max[column] = Double.NEGATIVE_INFINITY;
+        return column;
+    }
+
+    private int addCategoricalColumn() {
+        int column = categorical.length;
+        categorical = Arrays.copyOf(categorical, column + 1);
+        categorical[column] = newCodeColumn(productIds.length);
+        return column;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= productIds.length) {
+            return;
+        }
+        int capacity = Math.max(required, productIds.length * 2);
+        productIds = Arrays.copyOf(productIds, capacity);
+        productNames = Arrays.copyOf(productNames, capacity);
+        for (int c = 0; c < numeric.length; c++) {
+            int previousLength = numeric[c].length;
+            numeric[c] = Arrays.copyOf(numeric[c], capacity);
+            Arrays.fill(numeric[c], previousLength, capacity, Double.NaN);
+        }
+        for (int c = 0; c < categorical.length; c++) {
+            int previousLength = categorical[c].length;
+            categorical[c] = Arrays.copyOf(categorical[c], capacity);
+            Arrays.fill(categorical[c], previousLength, capacity, MISSING);
+        }
+    }
+
+    private int code(String value) {
+        if (value == null || value.isBlank()) {
+            return MISSING;
+        }
+        return codes.computeIfAbsent(value.trim().toLowerCase(), key -> codes.size());
+    }
+
+    private static int[] newCodeColumn(int capacity) {
+        int[] column = new int[capacity];
+        Arrays.fill(column, MISSING);
+        return column;
+    }
+
+    private static String stripPrice(String value) {
+        if (value == null) {
+            return null;
+        }
+        int separator = value.indexOf(PRICE_SEPARATOR);
+        return separator < 0 ? value : value.substring(0, separator);
+    }
+}
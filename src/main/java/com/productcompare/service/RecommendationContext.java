@@ -0,0 +1,57 @@
+package com.productcompare.service;
+
+import com.productcompare.entity.Feature;
+import com.productcompare.entity.LatestFeatureValue;
+import com.productcompare.entity.Product;
+import com.productcompare.entity.ProductBestPrice;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything {@code getRecommendation} looks at, loaded up front: the compared products, the workspace
+ * features in name order, the products' latest values and their best store offers.
+ */
+final class RecommendationContext {
+
+    private final Map<Long, Product> products = new HashMap<>();
+    private final List<Feature> features;
+    private final Map<Long, Map<Long, LatestFeatureValue>> latestByProduct = new HashMap<>();
+    private final Map<Long, ProductBestPrice> bestPrices = new HashMap<>();
+
+    RecommendationContext(
+            List<Product> products,
+            List<Feature> features,
+            List<LatestFeatureValue> latestValues,
+            List<ProductBestPrice> bestPrices
+    ) {
+        for (Product product : products) {
+            this.products.put(product.getId(), product);
+        }
+        this.features = features;
+        for (LatestFeatureValue latest : latestValues) {
+            latestByProduct.computeIfAbsent(latest.getProductId(), id -> new HashMap<>()).put(latest.getFeatureId(), latest);
+        }
+        for (ProductBestPrice bestPrice : bestPrices) {
+            this.bestPrices.put(bestPrice.getProductId(), bestPrice);
+        }
+    }
+
+    Product product(Long productId) {
+        return products.get(productId);
+    }
+
+    List<Feature> features() {
+        return features;
+    }
+
+    LatestFeatureValue latestValue(Long productId, Long featureId) {
+        Map<Long, LatestFeatureValue> byFeature = latestByProduct.get(productId);
+        return byFeature == null ? null : byFeature.get(featureId);
+    }
+
+    ProductBestPrice bestPrice(Long productId) {
+        return bestPrices.get(productId);
+    }
+}
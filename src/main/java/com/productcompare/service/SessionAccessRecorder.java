@@ -0,0 +1,94 @@
+package com.productcompare.service;
+
+import com.productcompare.repository.SessionAccessWriter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffers session last-access times so authenticating a request does not write to the database.
+ * Accesses are coalesced per token, an access within {@code granularity} of the stored time is not recorded at all,
+ * and the buffer is written in one batch every flush interval and once more on shutdown.
+ */
+@Component
+public class SessionAccessRecorder {
+    private static final Logger log = LoggerFactory.getLogger(SessionAccessRecorder.class);
+
+    private final SessionAccessWriter sessionAccessWriter;
+    private final Duration granularity;
+    private final ConcurrentHashMap<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public SessionAccessRecorder(
+            SessionAccessWriter sessionAccessWriter,
+            MeterRegistry meterRegistry,
+            @Value("${productcompare.session-access.granularity:60s}") Duration granularity
+    ) {
+        this.sessionAccessWriter = sessionAccessWriter;
+        this.granularity = granularity;
+        Gauge.builder("session.access.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Notes an access to {@code token} at {@code now}, given the last access time currently stored for it.
+     * Returns whether the access was recorded.
+     */
+    public boolean recordAccess(String token, LocalDateTime storedLastAccess, LocalDateTime now) {
+        if (storedLastAccess != null && now.isBefore(storedLastAccess.plus(granularity))) {
+            return false;
+        }
+        pending.merge(token, now, SessionAccessRecorder::later);
+        return true;
+    }
+
+    /**
+     * Drops a buffered access, for a session that no longer exists.
+     */
+    public void forget(String token) {
+        pending.remove(token);
+    }
+
+    @Scheduled(fixedDelayString = "${productcompare.session-access.flush-interval:10s}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, LocalDateTime> batch = new HashMap<>();
+        for (Map.Entry<String, LocalDateTime> entry : pending.entrySet()) {
+            // Only take the entry if no newer access replaced it meanwhile; a newer one waits for the next flush.
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+        try {
+            sessionAccessWriter.updateLastAccess(batch);
+        } catch (DataAccessException exception) {
+            log.warn("Could not write {} session access times; keeping them for the next flush", batch.size(), exception);
+            batch.forEach((token, lastAccess) -> pending.merge(token, lastAccess, SessionAccessRecorder::later));
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,159 @@
+package com.productcompare.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Token to {@link WorkspacePrincipal} cache in front of the user_session lookup, so authenticating a request is a
+ * hash lookup. Entries expire a fixed {@code ttl} after they are loaded. Past {@code max-entries} the entries
+ * closest to expiry are dropped, which with a fixed TTL are the oldest. An invalidated token leaves a tombstone
+ * until its TTL ends, so a lookup that read the session just before logout cannot cache it again.
+ */
+@Component
+public class SessionCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final ObjectProvider<SessionInvalidationBroadcaster> broadcaster;
+    private final ConcurrentHashMap<String, CachedSession> entries = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    @Autowired
+    public SessionCache(
+            @Value("${productcompare.session-cache.max-entries:10000}") int maxEntries,
+            @Value("${productcompare.session-cache.ttl:5m}") Duration ttl,
+            MeterRegistry meterRegistry,
+            ObjectProvider<SessionInvalidationBroadcaster> broadcaster
+    ) {
+        this(maxEntries, ttl, meterRegistry, broadcaster, System::nanoTime);
+    }
+
+    SessionCache(
+            int maxEntries,
+            Duration ttl,
+            MeterRegistry meterRegistry,
+            ObjectProvider<SessionInvalidationBroadcaster> broadcaster,
+            LongSupplier ticker
+    ) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+        this.broadcaster = broadcaster;
+        this.hits = Counter.builder("session.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("session.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("session.cache.evictions").register(meterRegistry);
+        Gauge.builder("session.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * The cached session of {@code token}, or null when it has to be loaded.
+     */
+    public CachedSession get(String token) {
+        CachedSession cached = entries.get(token);
+        if (cached != null && cached.expiresAt - ticker.getAsLong() <= 0) {
+            entries.remove(token, cached);
+            cached = null;
+        }
+        if (cached == null || cached.principal == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cached;
+    }
+
+    /**
+     * Caches a session just read from the database and returns its entry, or returns null when the token was
+     * invalidated since the read.
+     */
+    public CachedSession put(String token, WorkspacePrincipal principal, LocalDateTime lastAccess) {
+        long now = ticker.getAsLong();
+        CachedSession loaded = new CachedSession(principal, now + ttlNanos, lastAccess);
+        CachedSession current = entries.compute(token, (key, existing) ->
+                existing != null && existing.principal == null && existing.expiresAt - now > 0 ? existing : loaded);
+        if (entries.size() > maxEntries) {
+            evict(now);
+        }
+        return current == loaded ? loaded : null;
+    }
+
+    /**
+     * Drops {@code token} here and, through the {@link SessionInvalidationBroadcaster} if there is one, on the
+     * other instances.
+     */
+    public void invalidate(String token) {
+        invalidateLocally(token);
+        broadcaster.ifAvailable(target -> target.broadcast(token));
+    }
+
+    public void invalidateLocally(String token) {
+        entries.put(token, new CachedSession(null, ticker.getAsLong() + ttlNanos, null));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drops expired entries, then the ones closest to expiry until a tenth of the capacity is free again,
+     * so a full cache sweeps once per many inserts rather than on every one.
+     */
+    private synchronized void evict(long now) {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        entries.entrySet().removeIf(entry -> entry.getValue().expiresAt - now <= 0);
+        int target = maxEntries - maxEntries / 10;
+        if (entries.size() > target) {
+            List<Map.Entry<String, CachedSession>> oldestFirst = new ArrayList<>(entries.entrySet());
+            oldestFirst.sort(Comparator.comparingLong(entry -> entry.getValue().expiresAt - now));
+            for (int i = 0; i < oldestFirst.size() - target; i++) {
+                if (entries.remove(oldestFirst.get(i).getKey(), oldestFirst.get(i).getValue())) {
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    public static final class CachedSession {
+        private final WorkspacePrincipal principal;
+        private final long expiresAt;
+        private volatile LocalDateTime lastAccess;
+
+        private CachedSession(WorkspacePrincipal principal, long expiresAt, LocalDateTime lastAccess) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+        }
+
+        public WorkspacePrincipal getPrincipal() {
+            return principal;
+        }
+
+        public LocalDateTime getLastAccess() {
+            return lastAccess;
+        }
+
+        public void setLastAccess(LocalDateTime lastAccess) {
+            this.lastAccess = lastAccess;
+        }
+    }
+}
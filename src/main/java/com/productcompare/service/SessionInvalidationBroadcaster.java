@@ -0,0 +1,12 @@
+package com.productcompare.service;
+
+/**
+ * Optional hook for running more than one instance. When a bean of this type exists, {@link SessionCache} passes it
+ * every token it invalidates; the implementation should deliver the token to the other instances (a message topic,
+ * a database poll) and call {@link SessionCache#invalidateLocally} there. Without one, another instance may keep
+ * serving a logged-out token until its cache entry expires.
+ */
+public interface SessionInvalidationBroadcaster {
+
+    void broadcast(String token);
+}
@@ -0,0 +1,170 @@
+package com.productcompare.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * In-process LRU of {@link ProductVectors}, one entry per workspace, kept current by the writes themselves.
+ * Each entry carries the workspace revision it reflects. Writers record their changes, which are applied
+ * once their transaction commits, and then record the revision they produced: an entry only follows along
+ * when that revision directly succeeds its own, so a write that was missed or applied out of order drops
+ * the entry and the next query rebuilds it.
+ * <p>
+ * A change that arrives while a workspace has no entry, or an invalidation, bumps the workspace's generation.
+ * Loaders take the generation before they read, and {@link #put} refuses vectors loaded under an older one:
+ * they may predate the change, and the write's revision would otherwise promote them.
+ */
+@Component
+public class SimilarProductIndex {
+
+    private final int maxWorkspaces;
+    private final LinkedHashMap<Long, Entry> entries;
+    private final Map<Long, Long> generations = new HashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public SimilarProductIndex(
+            @Value("${productcompare.similarity-index.max-workspaces:64}") int maxWorkspaces,
+            MeterRegistry meterRegistry
+    ) {
+        this.maxWorkspaces = maxWorkspaces;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > SimilarProductIndex.this.maxWorkspaces;
+            }
+        };
+        this.hits = Counter.builder("similarity.index.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("similarity.index.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("similarity.index.size", this, SimilarProductIndex::size).register(meterRegistry);
+    }
+
+    synchronized ProductVectors get(Long workspaceId, long revision) {
+        Entry entry = entries.get(workspaceId);
+        if (entry == null || entry.revision != revision) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.vectors;
+    }
+
+    /**
+     * To be taken before reading the revision and loading the vectors passed to {@link #put}.
+     */
+    synchronized long generation(Long workspaceId) {
+        return generations.getOrDefault(workspaceId, 0L);
+    }
+
+    synchronized void put(Long workspaceId, long revision, ProductVectors vectors, long generation) {
+        if (generation != generation(workspaceId)) {
+            return;
+        }
+        Entry existing = entries.get(workspaceId);
+        if (existing != null && existing.revision >= revision) {
+            return;
+        }
+        entries.put(workspaceId, new Entry(revision, vectors));
+    }
+
+    public void recordProduct(Long workspaceId, Long productId, String name, String category) {
+        afterCommit(workspaceId, vectors -> vectors.putProduct(productId, name, category));
+    }
+
+    public void recordProductRemoved(Long workspaceId, Long productId) {
+        afterCommit(workspaceId, vectors -> vectors.removeProduct(productId));
+    }
+
+    public void recordValue(Long workspaceId, Long productId, Long featureId, String featureName, String value, Double numericValue) {
+        afterCommit(workspaceId, vectors -> vectors.putValue(productId, featureId, featureName, value, numericValue));
+    }
+
+    public void recordValueRemoved(Long workspaceId, Long productId, Long featureId) {
+        afterCommit(workspaceId, vectors -> vectors.removeValue(productId, featureId));
+    }
+
+    /**
+     * For writes that are cheaper to rebuild than to replay, such as renaming or deleting a feature.
+     */
+    public void recordInvalidation(Long workspaceId) {
+        runAfterCommit(() -> invalidate(workspaceId));
+    }
+
+    /**
+     * Must be recorded after the write's other changes so they are applied before the entry moves on.
+     */
+    public void recordRevision(Long workspaceId, long revision) {
+        runAfterCommit(() -> advance(workspaceId, revision));
+    }
+
+    public synchronized void invalidate(Long workspaceId) {
+        entries.remove(workspaceId);
+        generations.merge(workspaceId, 1L, Long::sum);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void advance(Long workspaceId, long revision) {
+        Entry entry = entries.get(workspaceId);
+        if (entry == null) {
+            return;
+        }
+        if (entry.revision == revision - 1) {
+            entry.revision = revision;
+        } else {
+            entries.remove(workspaceId);
+        }
+    }
+
+    private void afterCommit(Long workspaceId, Consumer<ProductVectors> change) {
+        runAfterCommit(() -> {
+            ProductVectors vectors;
+            synchronized (this) {
+                Entry entry = entries.get(workspaceId);
+                if (entry == null) {
+                    generations.merge(workspaceId, 1L, Long::sum);
+                }
+                vectors = entry == null ? null : entry.vectors;
+            }
+            if (vectors != null) {
+                change.accept(vectors);
+            }
+        });
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class Entry {
+        private long revision;
+        private final ProductVectors vectors;
+
+        private Entry(long revision, ProductVectors vectors) {
+            this.revision = revision;
+            this.vectors = vectors;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.productcompare.service;
+
+import com.productcompare.dto.SimilarProductResponse;
+import com.productcompare.entity.Feature;
+import com.productcompare.entity.Product;
+import com.productcompare.entity.UserWorkspace;
+import com.productcompare.repository.FeatureRepository;
+import com.productcompare.repository.LatestFeatureValueRepository;
+import com.productcompare.repository.LatestValueView;
+import com.productcompare.repository.ProductRepository;
+import com.productcompare.repository.UserWorkspaceRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+/**
+ * Suggests the products most similar to a given one. Queries are answered from {@link SimilarProductIndex};
+ * a workspace's vectors are loaded from the latest-value projection only when the index has no current entry.
+ */
+@Service
+public class SimilarProductService {
+
+    private static final int DEFAULT_LIMIT = 5;
+    private static final int MAX_LIMIT = 50;
+
+    private final ProductRepository productRepository;
+    private final FeatureRepository featureRepository;
+    private final LatestFeatureValueRepository latestFeatureValueRepository;
+    private final UserWorkspaceRepository userWorkspaceRepository;
+    private final SimilarProductIndex similarProductIndex;
+
+    public SimilarProductService(
+            ProductRepository productRepository,
+            FeatureRepository featureRepository,
+            LatestFeatureValueRepository latestFeatureValueRepository,
+            UserWorkspaceRepository userWorkspaceRepository,
+            SimilarProductIndex similarProductIndex
+    ) {
+        this.productRepository = productRepository;
+        this.featureRepository = featureRepository;
+        this.latestFeatureValueRepository = latestFeatureValueRepository;
+        this.userWorkspaceRepository = userWorkspaceRepository;
+        this.similarProductIndex = similarProductIndex;
+    }
+
+    @Transactional(readOnly = true)
+    public List<SimilarProductResponse> getSimilarProducts(UserWorkspace workspace, Long productId, Integer limit) {
+        int resolvedLimit = resolveLimit(limit);
+        long generation = similarProductIndex.generation(workspace.getId());
+        long revision = userWorkspaceRepository.findRevisionById(workspace.getId())
+                .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Workspace not found"));
+
+        ProductVectors vectors = similarProductIndex.get(workspace.getId(), revision);
+        if (vectors == null) {
+            vectors = loadVectors(workspace.getId());
+            similarProductIndex.put(workspace.getId(), revision, vectors, generation);
+        }
+
+        List<SimilarProductResponse> similar = vectors.nearest(productId, resolvedLimit);
+        if (similar == null) {
+            throw new ResponseStatusException(NOT_FOUND, "Product not found");
+        }
+        return similar;
+    }
+
+    private ProductVectors loadVectors(Long workspaceId) {
+        ProductVectors vectors = new ProductVectors();
+        for (Product product : productRepository.findByWorkspaceIdOrderByNameAsc(workspaceId)) {
+            vectors.putProduct(product.getId(), product.getName(), product.getCategory());
+        }
+        Map<Long, String> featureNames = new HashMap<>();
+        for (Feature feature : featureRepository.findByWorkspaceIdOrderByNameAsc(workspaceId)) {
+            featureNames.put(feature.getId(), feature.getName());
+        }
+        for (LatestValueView cell : latestFeatureValueRepository.findValuesByWorkspaceId(workspaceId)) {
+            vectors.putValue(cell.productId(), cell.featureId(), featureNames.get(cell.featureId()), cell.value(), cell.numericValue());
+        }
+        return vectors;
+    }
+
+    private static int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+}
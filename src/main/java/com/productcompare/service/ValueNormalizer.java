@@ -0,0 +1,228 @@
+package com.productcompare.service;
+
+import com.productcompare.entity.NumericParseStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads the leading quantity of a feature value ("8 GB", "1 TB", "4500 mAh", "6.7 inch", "$1,299") in one pass
+ * and converts it to a canonical unit: bytes, mAh, inches or currency minor units, so values written with
+ * different units compare correctly. Numbers with any other unit keep their amount and raw unit.
+ * The scanner works on char indexes only; the one object it creates is the result, and results are cached
+ * by raw value because feature values repeat heavily across products.
+ */
+@Component
+public class ValueNormalizer {
+
+    private static final String PRICE_SEPARATOR = " ||price|| ";
+    private static final int MAX_UNIT_LENGTH = 16;
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    private static final double KIB = 1024d;
+    private static final double[] POWERS_OF_TEN = new double[MAX_MANTISSA_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1d;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10d;
+        }
+    }
+
+    public enum Dimension {
+        BYTES("B"),
+        CHARGE("mAh"),
+        LENGTH("in"),
+        CURRENCY("minor"),
+        NUMBER(null);
+
+        private final String canonicalUnit;
+
+        Dimension(String canonicalUnit) {
+            this.canonicalUnit = canonicalUnit;
+        }
+    }
+
+    public record NormalizedValue(double amount, Dimension dimension, String unit) {
+
+        static final NormalizedValue NOT_NUMERIC = new NormalizedValue(Double.NaN, null, null);
+
+        public boolean isNumeric() {
+            return dimension != null;
+        }
+
+        public Double numericValue() {
+            return isNumeric() ? amount : null;
+        }
+
+        public NumericParseStatus status() {
+            return isNumeric() ? NumericParseStatus.NORMALIZED : NumericParseStatus.NOT_NUMERIC;
+        }
+
+        public boolean isComparableTo(NormalizedValue other) {
+            return isNumeric() && other.isNumeric() && dimension == other.dimension
+                    && (dimension != Dimension.NUMBER || Objects.equals(unit, other.unit));
+        }
+    }
+
+    private final int maxCacheSize;
+    private final ConcurrentHashMap<String, NormalizedValue> cache = new ConcurrentHashMap<>();
+
+    public ValueNormalizer(@Value("${productcompare.value-normalizer.cache-size:10000}") int maxCacheSize) {
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    public NormalizedValue normalize(String raw) {
+        if (raw == null) {
+            return NormalizedValue.NOT_NUMERIC;
+        }
+        NormalizedValue cached = cache.get(raw);
+        if (cached != null) {
+            return cached;
+        }
+
+        NormalizedValue scanned = scan(raw);
+        // Dropping everything at the bound is cheaper than tracking recency, and the hot values come back fast.
+        if (cache.size() >= maxCacheSize) {
+            cache.clear();
+        }
+        cache.put(raw, scanned);
+        return scanned;
+    }
+
+    static NormalizedValue scan(String raw) {
+        // Values saved with a store price carry it after the separator; only the value part is measured.
+        int end = raw.indexOf(PRICE_SEPARATOR);
+        if (end < 0) {
+            end = raw.length();
+        }
+
+        int i = 0;
+        boolean currencyPrefix = false;
+        while (i < end) {
+            char c = raw.charAt(i);
+            if (isDigit(c) || (c == '.' && i + 1 < end && isDigit(raw.charAt(i + 1)))) {
+                break;
+            }
+            if (isCurrencySymbol(c)) {
+                currencyPrefix = true;
+            } else if (!Character.isWhitespace(c)) {
+                currencyPrefix = false;
+            }
+            i++;
+        }
+        if (i == end) {
+            return NormalizedValue.NOT_NUMERIC;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        int droppedIntegerDigits = 0;
+        boolean fraction = false;
+        while (i < end) {
+            char c = raw.charAt(i);
+            if (isDigit(c)) {
+                if (digits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digits++;
+                    if (fraction) {
+                        scale++;
+                    }
+                } else if (!fraction) {
+                    droppedIntegerDigits++;
+                }
+                i++;
+            } else if (c == '.' && !fraction && i + 1 < end && isDigit(raw.charAt(i + 1))) {
+                fraction = true;
+                i++;
+            } else if (c == ',' && !fraction && i + 1 < end && isDigit(raw.charAt(i + 1))) {
+                // Thousands separator, as in "1,299".
+                i++;
+            } else {
+                break;
+            }
+        }
+
+        double amount = mantissa / POWERS_OF_TEN[scale];
+        for (int dropped = 0; dropped < droppedIntegerDigits; dropped++) {
+            amount *= 10d;
+        }
+
+        if (currencyPrefix) {
+            return new NormalizedValue(Math.round(amount * 100d), Dimension.CURRENCY, Dimension.CURRENCY.canonicalUnit);
+        }
+
+        while (i < end && (Character.isWhitespace(raw.charAt(i)) || raw.charAt(i) == '-')) {
+            i++;
+        }
+        if (i < end && (raw.charAt(i) == '"' || raw.charAt(i) == '″')) {
+            return new NormalizedValue(amount, Dimension.LENGTH, Dimension.LENGTH.canonicalUnit);
+        }
+
+        int unitStart = i;
+        while (i < end && i - unitStart < MAX_UNIT_LENGTH && isAsciiLetter(raw.charAt(i))) {
+            i++;
+        }
+        int unitLength = i - unitStart;
+        if (unitLength == 0) {
+            return new NormalizedValue(amount, Dimension.NUMBER, null);
+        }
+
+        if (unitIs(raw, unitStart, unitLength, "kb")) {
+            return bytes(amount * KIB);
+        }
+        if (unitIs(raw, unitStart, unitLength, "mb")) {
+            return bytes(amount * KIB * KIB);
+        }
+        if (unitIs(raw, unitStart, unitLength, "gb")) {
+            return bytes(amount * KIB * KIB * KIB);
+        }
+        if (unitIs(raw, unitStart, unitLength, "tb")) {
+            return bytes(amount * KIB * KIB * KIB * KIB);
+        }
+        if (unitIs(raw, unitStart, unitLength, "mah")) {
+            return new NormalizedValue(amount, Dimension.CHARGE, Dimension.CHARGE.canonicalUnit);
+        }
+        if (unitIs(raw, unitStart, unitLength, "ah")) {
+            return new NormalizedValue(amount * 1000d, Dimension.CHARGE, Dimension.CHARGE.canonicalUnit);
+        }
+        if (unitIs(raw, unitStart, unitLength, "in") || unitIs(raw, unitStart, unitLength, "inch")
+                || unitIs(raw, unitStart, unitLength, "inches")) {
+            return new NormalizedValue(amount, Dimension.LENGTH, Dimension.LENGTH.canonicalUnit);
+        }
+        if (unitIs(raw, unitStart, unitLength, "cm")) {
+            return new NormalizedValue(amount / 2.54d, Dimension.LENGTH, Dimension.LENGTH.canonicalUnit);
+        }
+        if (unitIs(raw, unitStart, unitLength, "mm")) {
+            return new NormalizedValue(amount / 25.4d, Dimension.LENGTH, Dimension.LENGTH.canonicalUnit);
+        }
+        if (unitIs(raw, unitStart, unitLength, "usd") || unitIs(raw, unitStart, unitLength, "eur")
+                || unitIs(raw, unitStart, unitLength, "gbp") || unitIs(raw, unitStart, unitLength, "inr")) {
+            return new NormalizedValue(Math.round(amount * 100d), Dimension.CURRENCY, Dimension.CURRENCY.canonicalUnit);
+        }
+
+        return new NormalizedValue(amount, Dimension.NUMBER, raw.substring(unitStart, unitStart + unitLength));
+    }
+
+    private static NormalizedValue bytes(double amount) {
+        return new NormalizedValue(amount, Dimension.BYTES, Dimension.BYTES.canonicalUnit);
+    }
+
+    private static boolean unitIs(String raw, int start, int length, String unit) {
+        return length == unit.length() && raw.regionMatches(true, start, unit, 0, length);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isCurrencySymbol(char c) {
+        return c == '$' || c == '€' || c == '£' || c == '₹' || c == '¥';
+    }
+}
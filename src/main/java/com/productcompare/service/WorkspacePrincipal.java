@@ -0,0 +1,17 @@
+package com.productcompare.service;
+
+import com.productcompare.entity.UserWorkspace;
+
+/**
+ * What a request needs to know about its authenticated workspace, cached instead of the entity.
+ */
+public record WorkspacePrincipal(Long workspaceId, String username) {
+
+    /**
+     * A detached workspace carrying only the id and username, which is all the services read from it.
+     * A new instance per call, so a caller changing it cannot affect the cache.
+     */
+    public UserWorkspace toWorkspace() {
+        return new UserWorkspace(workspaceId, username, null, null);
+    }
+}
@@ -0,0 +1,179 @@
+package com.productcompare.service;
+
+import com.productcompare.entity.PendingWorkspaceChange;
+import com.productcompare.entity.WorkspaceChange;
+import com.productcompare.repository.PendingWorkspaceChangeRepository;
+import com.productcompare.repository.UserWorkspaceRepository;
+import com.productcompare.repository.WorkspaceChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Assigns workspace revisions and appends the change log through an outbox. A write stores its changes in
+ * workspace_change_outbox inside its own transaction, so they commit or roll back with the data. The relay then
+ * gives everything pending for the workspace one new revision and moves it to workspace_change. It runs in a
+ * short transaction of its own, right after the write commits and again on a schedule for whatever a failed or
+ * interrupted relay left behind. Writers of different cells therefore never share a row lock. The relay only
+ * sees committed writes, so the revision moves after the data does: a reader that sees the new revision also
+ * sees the write, and a matrix cached under the old revision is superseded by the bump.
+ */
+@Component
+public class WorkspaceRevisionLog {
+    private static final Logger log = LoggerFactory.getLogger(WorkspaceRevisionLog.class);
+
+    private static final int CHANGE_LOG_RETAINED_REVISIONS = 1000;
+    private static final int CHANGE_LOG_TRIM_INTERVAL = 100;
+    private static final int MAX_CHANGES_PER_REVISION = 1000;
+
+    private final UserWorkspaceRepository userWorkspaceRepository;
+    private final WorkspaceChangeRepository workspaceChangeRepository;
+    private final PendingWorkspaceChangeRepository pendingWorkspaceChangeRepository;
+    private final ComparisonMatrixCache comparisonMatrixCache;
+    private final SimilarProductIndex similarProductIndex;
+    private final TransactionTemplate transactionTemplate;
+
+    public WorkspaceRevisionLog(
+            UserWorkspaceRepository userWorkspaceRepository,
+            WorkspaceChangeRepository workspaceChangeRepository,
+            PendingWorkspaceChangeRepository pendingWorkspaceChangeRepository,
+            ComparisonMatrixCache comparisonMatrixCache,
+            SimilarProductIndex similarProductIndex,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.userWorkspaceRepository = userWorkspaceRepository;
+        this.workspaceChangeRepository = workspaceChangeRepository;
+        this.pendingWorkspaceChangeRepository = pendingWorkspaceChangeRepository;
+        this.comparisonMatrixCache = comparisonMatrixCache;
+        this.similarProductIndex = similarProductIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Each statement sees what committed before it, so a relay that waited on the workspace row
+        // never moves changes the previous relay already moved.
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Stores the write's changes in the current transaction and relays them once it commits. Must be called
+     * after the write's {@link SimilarProductIndex} changes so they are applied before the index moves on.
+     */
+    public void record(Long workspaceId, List<WorkspaceChange> changes) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingWorkspaceChange> pending = new ArrayList<>(changes.size());
+        for (WorkspaceChange change : changes) {
+            pending.add(new PendingWorkspaceChange(change, now));
+        }
+        Set<Long> ids = new HashSet<>();
+        for (PendingWorkspaceChange saved : pendingWorkspaceChangeRepository.saveAll(pending)) {
+            ids.add(saved.getId());
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            relay(workspaceId, ids);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                relay(workspaceId, ids);
+            }
+        });
+    }
+
+    /**
+     * Picks up changes whose relay failed or never ran, for instance because the instance stopped right after
+     * the write committed.
+     */
+    @Scheduled(fixedDelayString = "${productcompare.workspace-revisions.relay-interval:5s}")
+    public void relayPending() {
+        for (Long workspaceId : pendingWorkspaceChangeRepository.findWorkspaceIds()) {
+            relay(workspaceId, Set.of());
+        }
+    }
+
+    /**
+     * Relays everything pending for the workspace. {@code ownChangeIds} are the outbox rows of the write that
+     * triggered the relay, whose {@link SimilarProductIndex} changes this instance has applied.
+     * The write itself is already committed, so a failure here must not reach the caller. Its changes stay in
+     * the outbox for the next relay, and the local caches are dropped until then.
+     */
+    void relay(Long workspaceId, Set<Long> ownChangeIds) {
+        Long revision;
+        try {
+            do {
+                revision = transactionTemplate.execute(status -> publish(status, workspaceId, ownChangeIds));
+                if (revision != null) {
+                    trim(workspaceId, revision);
+                }
+            } while (revision != null);
+        } catch (RuntimeException exception) {
+            log.warn("Could not relay the changes of workspace {}; they stay queued", workspaceId, exception);
+            comparisonMatrixCache.invalidate(workspaceId);
+            similarProductIndex.invalidate(workspaceId);
+        }
+    }
+
+    /**
+     * Gives the oldest pending changes of the workspace one new revision. Returns the revision, or null when
+     * nothing was pending. The workspace row is locked first, so relays of one workspace take turns.
+     * The similar-product index only moves on to the revision when it holds nothing but changes it has seen;
+     * changes of other writes, possibly made on other instances, make it rebuild instead.
+     */
+    private Long publish(TransactionStatus status, Long workspaceId, Set<Long> ownChangeIds) {
+        if (userWorkspaceRepository.incrementRevision(workspaceId) == 0) {
+            // The workspace is gone, and with it anything its changes described.
+            pendingWorkspaceChangeRepository.deleteAllInBatch(
+                    pendingWorkspaceChangeRepository.findByWorkspaceIdOrderByIdAsc(workspaceId, Limit.unlimited()));
+            return null;
+        }
+        List<PendingWorkspaceChange> pending = pendingWorkspaceChangeRepository.findByWorkspaceIdOrderByIdAsc(
+                workspaceId, Limit.of(MAX_CHANGES_PER_REVISION));
+        if (pending.isEmpty()) {
+            // Another relay got there first; drop the bump.
+            status.setRollbackOnly();
+            return null;
+        }
+
+        long revision = userWorkspaceRepository.findRevisionById(workspaceId).orElseThrow();
+        List<WorkspaceChange> changes = new ArrayList<>(pending.size());
+        boolean seen = true;
+        for (PendingWorkspaceChange change : pending) {
+            changes.add(change.toChange(revision));
+            seen &= ownChangeIds.contains(change.getId());
+        }
+        workspaceChangeRepository.saveAll(changes);
+        pendingWorkspaceChangeRepository.deleteAllInBatch(pending);
+        if (seen) {
+            similarProductIndex.recordRevision(workspaceId, revision);
+        } else {
+            similarProductIndex.recordInvalidation(workspaceId);
+        }
+        return revision;
+    }
+
+    private void trim(Long workspaceId, long revision) {
+        if (revision % CHANGE_LOG_TRIM_INTERVAL != 0) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> workspaceChangeRepository.deleteUpToRevision(workspaceId, revision - CHANGE_LOG_RETAINED_REVISIONS));
+        } catch (RuntimeException exception) {
+            log.warn("Could not trim the change log of workspace {}", workspaceId, exception);
+        }
+    }
+}
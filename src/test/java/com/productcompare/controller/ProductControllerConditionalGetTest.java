@@ -0,0 +1,103 @@
+package com.productcompare.controller;
+
+import com.productcompare.dto.ComparisonResponse;
+import com.productcompare.dto.ComparisonWindowRequest;
+import com.productcompare.entity.UserWorkspace;
+import com.productcompare.service.AuthService;
+import com.productcompare.service.ComparisonStreamWriter;
+import com.productcompare.service.ProductImportService;
+import com.productcompare.service.ProductRankingService;
+import com.productcompare.service.ProductService;
+import com.productcompare.service.ProductSkylineService;
+import com.productcompare.service.SimilarProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class ProductControllerConditionalGetTest {
+
+	private static final String TOKEN = "token";
+
+	private ProductService productService;
+	private ComparisonStreamWriter comparisonStreamWriter;
+	private ProductController controller;
+	private UserWorkspace workspace;
+
+	@BeforeEach
+	void setUp() {
+		productService = mock(ProductService.class);
+		AuthService authService = mock(AuthService.class);
+		comparisonStreamWriter = mock(ComparisonStreamWriter.class);
+		controller = new ProductController(
+				productService,
+				authService,
+				comparisonStreamWriter,
+				mock(ProductRankingService.class),
+				mock(ProductSkylineService.class),
+				mock(SimilarProductService.class),
+				mock(ProductImportService.class)
+		);
+
+		workspace = new UserWorkspace();
+		workspace.setId(7L);
+		when(authService.getWorkspaceByToken(TOKEN)).thenReturn(workspace);
+		when(productService.getWorkspaceRevision(workspace)).thenReturn(3L);
+	}
+
+	@Test
+	void comparisonAnswersMatchingIfNoneMatchWithoutBuildingTheMatrix() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/comparison");
+		request.addHeader("If-None-Match", "\"7-3\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		ResponseEntity<?> result = controller.getComparison(TOKEN, new ComparisonWindowRequest(), new ServletWebRequest(request, response));
+
+		assertThat(result).isNull();
+		assertThat(response.getStatus()).isEqualTo(304);
+		assertThat(response.getHeader("ETag")).isEqualTo("\"7-3\"");
+		verify(productService).getWorkspaceRevision(workspace);
+		verifyNoMoreInteractions(productService);
+		verifyNoInteractions(comparisonStreamWriter);
+	}
+
+	@Test
+	void comparisonIsReturnedWithETagOnceTheRevisionMoves() {
+		ComparisonResponse comparison = new ComparisonResponse(List.of(), List.of(), List.of());
+		when(productService.getComparison(workspace)).thenReturn(comparison);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/comparison");
+		request.addHeader("If-None-Match", "\"7-2\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		ResponseEntity<?> result = controller.getComparison(TOKEN, new ComparisonWindowRequest(), new ServletWebRequest(request, response));
+
+		assertThat(result.getBody()).isSameAs(comparison);
+		assertThat(response.getHeader("ETag")).isEqualTo("\"7-3\"");
+	}
+
+	@Test
+	void storePricesUseTheProductRevision() {
+		when(productService.getProductRevision(workspace, 42L)).thenReturn(5L);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/42/stores");
+		request.addHeader("If-None-Match", "\"42-5\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		List<?> result = controller.getStorePrices(TOKEN, 42L, new ServletWebRequest(request, response));
+
+		assertThat(result).isNull();
+		assertThat(response.getStatus()).isEqualTo(304);
+		verify(productService).getProductRevision(workspace, 42L);
+		verifyNoMoreInteractions(productService);
+	}
+}
@@ -0,0 +1,69 @@
+package com.productcompare.service;
+
+import com.productcompare.entity.Feature;
+import com.productcompare.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ComparisonMatrixCacheTest {
+
+	@Test
+	void evictsLeastRecentlyUsedWorkspacesOnceWeightIsExceeded() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		ComparisonMatrixCache cache = new ComparisonMatrixCache(20, registry);
+		ComparisonMatrix twoByTwo = matrix(2, 2);
+
+		cache.put(1L, 1, twoByTwo);
+		cache.put(2L, 1, twoByTwo);
+		assertThat(cache.get(1L, 1)).isSameAs(twoByTwo);
+
+		cache.put(3L, 1, twoByTwo);
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.weight()).isEqualTo(16);
+		assertThat(cache.get(2L, 1)).isNull();
+		assertThat(cache.get(1L, 1)).isSameAs(twoByTwo);
+		assertThat(cache.get(3L, 1)).isSameAs(twoByTwo);
+		assertThat(registry.get("comparison.cache.evictions").counter().count()).isEqualTo(1);
+		assertThat(registry.get("comparison.cache.requests").tag("result", "hit").counter().count()).isEqualTo(3);
+		assertThat(registry.get("comparison.cache.requests").tag("result", "miss").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void ignoresEntriesBuiltForAnOlderRevision() {
+		ComparisonMatrixCache cache = new ComparisonMatrixCache(100, new SimpleMeterRegistry());
+		ComparisonMatrix current = matrix(1, 1);
+		ComparisonMatrix stale = matrix(1, 1);
+
+		cache.put(1L, 5, current);
+		cache.put(1L, 4, stale);
+
+		assertThat(cache.get(1L, 5)).isSameAs(current);
+		assertThat(cache.get(1L, 6)).isNull();
+	}
+
+	@Test
+	void doesNotCacheMatricesHeavierThanTheWholeBudget() {
+		ComparisonMatrixCache cache = new ComparisonMatrixCache(10, new SimpleMeterRegistry());
+
+		cache.put(1L, 1, matrix(4, 4));
+
+		assertThat(cache.size()).isZero();
+		assertThat(cache.weight()).isZero();
+	}
+
+	private static ComparisonMatrix matrix(int products, int features) {
+		List<Product> productList = LongStream.rangeClosed(1, products)
+				.mapToObj(id -> new Product(id, "Product " + id, null))
+				.toList();
+		List<Feature> featureList = LongStream.rangeClosed(1, features)
+				.mapToObj(id -> new Feature(id, "Feature " + id, (int) id, null))
+				.toList();
+		return ComparisonMatrix.builder(productList, featureList).build();
+	}
+}
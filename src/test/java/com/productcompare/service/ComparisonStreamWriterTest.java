@@ -0,0 +1,70 @@
+package com.productcompare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productcompare.dto.ComparisonResponse;
+import com.productcompare.dto.ComparisonRowResponse;
+import com.productcompare.dto.FeatureValueCellResponse;
+import com.productcompare.dto.ItemResponse;
+import com.productcompare.entity.Feature;
+import com.productcompare.entity.Product;
+import com.productcompare.entity.UserWorkspace;
+import com.productcompare.repository.FeatureRepository;
+import com.productcompare.repository.LatestCellView;
+import com.productcompare.repository.LatestFeatureValueRepository;
+import com.productcompare.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ComparisonStreamWriterTest {
+
+	@Test
+	void writesSameDocumentAsComparisonResponse() throws Exception {
+		UserWorkspace workspace = new UserWorkspace(7L, "demo", null, null);
+		ProductRepository productRepository = mock(ProductRepository.class);
+		FeatureRepository featureRepository = mock(FeatureRepository.class);
+		LatestFeatureValueRepository latestFeatureValueRepository = mock(LatestFeatureValueRepository.class);
+		ObjectMapper objectMapper = new ObjectMapper();
+
+		when(productRepository.findByWorkspaceIdOrderByNameAsc(7L)).thenReturn(List.of(
+				new Product(2L, "Phone A", workspace),
+				new Product(1L, "Phone B", workspace)
+		));
+		when(featureRepository.findByWorkspaceIdOrderByNameAsc(7L)).thenReturn(List.of(
+				new Feature(11L, "Battery", 1, workspace),
+				new Feature(10L, "RAM", 1, workspace)
+		));
+		when(latestFeatureValueRepository.streamCellsInMatrixOrder(7L)).thenReturn(Stream.of(
+				new LatestCellView(1L, 11L, "5000 mAh", true, "up"),
+				new LatestCellView(2L, 10L, "8 GB", false, "same"),
+				new LatestCellView(1L, 10L, "12 \"GB\"", false, "same")
+		));
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		new ComparisonStreamWriter(productRepository, featureRepository, latestFeatureValueRepository, objectMapper)
+				.write(workspace, output);
+
+		ComparisonResponse expected = new ComparisonResponse(
+				List.of(new ItemResponse(2L, "Phone A"), new ItemResponse(1L, "Phone B")),
+				List.of(new ItemResponse(11L, "Battery"), new ItemResponse(10L, "RAM")),
+				List.of(
+						new ComparisonRowResponse(11L, "Battery", List.of(
+								new FeatureValueCellResponse(2L, "-", false, "same"),
+								new FeatureValueCellResponse(1L, "5000 mAh", true, "up")
+						)),
+						new ComparisonRowResponse(10L, "RAM", List.of(
+								new FeatureValueCellResponse(2L, "8 GB", false, "same"),
+								new FeatureValueCellResponse(1L, "12 \"GB\"", false, "same")
+						))
+				)
+		);
+		assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(expected));
+	}
+}
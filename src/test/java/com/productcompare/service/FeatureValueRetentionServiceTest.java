@@ -0,0 +1,106 @@
+package com.productcompare.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productcompare.entity.FeatureValueArchive;
+import com.productcompare.repository.FeatureValueArchiveRepository;
+import com.productcompare.repository.FeatureValueHistoryPruner;
+import com.productcompare.repository.PrunableFeatureValue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class FeatureValueRetentionServiceTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 3, 30);
+
+	private FeatureValueHistoryPruner pruner;
+	private FeatureValueArchiveRepository archiveRepository;
+	private ObjectMapper objectMapper;
+	private SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		pruner = mock(FeatureValueHistoryPruner.class);
+		archiveRepository = mock(FeatureValueArchiveRepository.class);
+		objectMapper = new ObjectMapper().findAndRegisterModules();
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@Test
+	void archivesAndDeletesAChunkAndCountsWhatWasReclaimed() throws IOException {
+		FeatureValueRetentionService service = service(3, 30, true);
+		when(pruner.findMaxId()).thenReturn(90L);
+		when(pruner.findPrunable(0L, 20L, 3, NOW.minusDays(30))).thenReturn(List.of(
+				new PrunableFeatureValue(11L, 1L, 10L, 1, "8 GB", NOW.minusDays(90)),
+				new PrunableFeatureValue(14L, 1L, 10L, 2, "12 GB", NOW.minusDays(60))
+		));
+
+		Long cursor = service.pruneChunk(0L, NOW);
+
+		assertThat(cursor).isEqualTo(20L);
+		verify(pruner).deleteByIds(List.of(11L, 14L));
+		ArgumentCaptor<FeatureValueArchive> archived = ArgumentCaptor.forClass(FeatureValueArchive.class);
+		verify(archiveRepository).save(archived.capture());
+		assertThat(archived.getValue().getRowCount()).isEqualTo(2);
+		assertThat(archived.getValue().getFirstValueId()).isEqualTo(11L);
+		assertThat(archived.getValue().getLastValueId()).isEqualTo(14L);
+		List<String> lines = gunzip(archived.getValue().getPayload());
+		assertThat(lines).hasSize(2);
+		JsonNode first = objectMapper.readTree(lines.get(0));
+		assertThat(first.get("id").asLong()).isEqualTo(11L);
+		assertThat(first.get("value").asText()).isEqualTo("8 GB");
+		assertThat(meterRegistry.get("history.retention.rows.pruned").counter().count()).isEqualTo(2);
+		assertThat(meterRegistry.get("history.retention.bytes.reclaimed").counter().count()).isEqualTo(9);
+		assertThat(meterRegistry.get("history.retention.bytes.archived").counter().count())
+				.isEqualTo(archived.getValue().getPayload().length);
+	}
+
+	@Test
+	void ageOnlyPolicyStillKeepsTheCurrentVersionAndWalksEmptyWindowsUpToTheLastId() {
+		FeatureValueRetentionService service = service(0, 30, false);
+		when(pruner.findMaxId()).thenReturn(50L);
+		when(pruner.findPrunable(40L, 50L, 1, NOW.minusDays(30))).thenReturn(List.of());
+
+		assertThat(service.pruneChunk(40L, NOW)).isEqualTo(50L);
+		assertThat(service.pruneChunk(50L, NOW)).isNull();
+		verify(pruner).findPrunable(40L, 50L, 1, NOW.minusDays(30));
+		verifyNoInteractions(archiveRepository);
+	}
+
+	@Test
+	void doesNothingWithoutARetentionRule() {
+		FeatureValueRetentionService service = service(0, 0, true);
+
+		assertThat(service.isEnabled()).isFalse();
+		assertThat(service.pruneChunk(0L, NOW)).isNull();
+		verifyNoInteractions(pruner, archiveRepository);
+	}
+
+	private FeatureValueRetentionService service(int keepVersions, int maxAgeDays, boolean archive) {
+		return new FeatureValueRetentionService(pruner, archiveRepository, objectMapper, meterRegistry, keepVersions, maxAgeDays, archive, 20);
+	}
+
+	private static List<String> gunzip(byte[] payload) throws IOException {
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new GZIPInputStream(new ByteArrayInputStream(payload)), StandardCharsets.UTF_8))) {
+			return reader.lines().toList();
+		}
+	}
+}
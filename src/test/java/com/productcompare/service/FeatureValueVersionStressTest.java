@@ -0,0 +1,149 @@
+package com.productcompare.service;
+
+import com.productcompare.dto.NameRequest;
+import com.productcompare.dto.ProductRequest;
+import com.productcompare.dto.ValueRequest;
+import com.productcompare.entity.FeatureValue;
+import com.productcompare.entity.UserWorkspace;
+import com.productcompare.repository.FeatureValueRepository;
+import com.productcompare.repository.UserWorkspaceRepository;
+import com.productcompare.repository.WorkspaceChangeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers feature value writes from several threads against the real database. Needs MySQL, so it only runs
+ * with {@code mvn test -Dtest=FeatureValueVersionStressTest -Dstress=true}. It works in a workspace of its own
+ * and removes it afterwards.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "stress", matches = "true")
+class FeatureValueVersionStressTest {
+	private static final Logger log = LoggerFactory.getLogger(FeatureValueVersionStressTest.class);
+
+	private static final int MAX_WRITERS = 8;
+	private static final double MIN_SCALING = 0.7;
+	private static final int WRITES_PER_WRITER = 50;
+
+	@Autowired
+	private ProductService productService;
+	@Autowired
+	private UserWorkspaceRepository userWorkspaceRepository;
+	@Autowired
+	private FeatureValueRepository featureValueRepository;
+	@Autowired
+	private WorkspaceChangeRepository workspaceChangeRepository;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private UserWorkspace workspace;
+	private Long productId;
+	private final List<Long> featureIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		workspace = userWorkspaceRepository.save(
+				new UserWorkspace(null, "stress-" + System.nanoTime(), "not-a-login", LocalDateTime.now()));
+		productId = productService.addProduct(workspace, new ProductRequest("Stress phone", null, null, null, null, List.of())).id();
+		for (int writer = 0; writer < MAX_WRITERS; writer++) {
+			featureIds.add(productService.addFeature(workspace, new NameRequest("Stress feature " + writer)).id());
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		productService.deleteProduct(workspace, productId);
+		for (Long featureId : featureIds) {
+			productService.deleteFeature(workspace, featureId);
+		}
+		new TransactionTemplate(transactionManager).executeWithoutResult(
+				status -> workspaceChangeRepository.deleteUpToRevision(workspace.getId(), Long.MAX_VALUE));
+		userWorkspaceRepository.deleteById(workspace.getId());
+	}
+
+	@Test
+	void concurrentWritersOfOneCellGetConsecutiveVersions() throws Exception {
+		Long featureId = featureIds.get(0);
+
+		runWriters(MAX_WRITERS, writer -> featureId);
+
+		List<FeatureValue> history = featureValueRepository.findByProductIdAndFeatureIdOrderByVersionDesc(productId, featureId);
+		int total = MAX_WRITERS * WRITES_PER_WRITER;
+		assertThat(history).hasSize(total);
+		for (int i = 0; i < total; i++) {
+			assertThat(history.get(i).getVersion()).isEqualTo(total - i);
+		}
+	}
+
+	/**
+	 * All writers share one workspace, so this also covers the workspace revision, which must not make writers of
+	 * different cells take turns. Throughput has to scale close to linearly with the number of writers.
+	 */
+	@Test
+	void writersOfDifferentCellsDoNotWaitOnEachOther() throws Exception {
+		double singleWriter = 0;
+		for (int writers = 1; writers <= MAX_WRITERS; writers *= 2) {
+			long started = System.nanoTime();
+			runWriters(writers, featureIds::get);
+			double seconds = (System.nanoTime() - started) / 1e9;
+			double throughput = writers * WRITES_PER_WRITER / seconds;
+			log.info("{} writers on separate cells: {} writes/s", writers, Math.round(throughput));
+			if (writers == 1) {
+				singleWriter = throughput;
+			} else {
+				assertThat(throughput).isGreaterThanOrEqualTo(MIN_SCALING * writers * singleWriter);
+			}
+		}
+
+		for (Long featureId : featureIds) {
+			List<FeatureValue> history = featureValueRepository.findByProductIdAndFeatureIdOrderByVersionDesc(productId, featureId);
+			for (int i = 0; i < history.size(); i++) {
+				assertThat(history.get(i).getVersion()).isEqualTo(history.size() - i);
+			}
+		}
+	}
+
+	private void runWriters(int writers, IntFunction<Long> cellOfWriter) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(writers);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> results = new ArrayList<>();
+			for (int writer = 0; writer < writers; writer++) {
+				int id = writer;
+				Long featureId = cellOfWriter.apply(writer);
+				results.add(executor.submit(() -> {
+					start.await();
+					for (int write = 0; write < WRITES_PER_WRITER; write++) {
+						productService.updateFeatureValue(workspace, productId, featureId, new ValueRequest(id + "-" + write + " GB"));
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
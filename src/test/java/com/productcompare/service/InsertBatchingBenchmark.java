@@ -0,0 +1,247 @@
+package com.productcompare.service;
+
+import com.productcompare.entity.Feature;
+import com.productcompare.entity.FeatureValue;
+import com.productcompare.entity.FeatureValueArchive;
+import com.productcompare.entity.LatestFeatureValue;
+import com.productcompare.entity.Product;
+import com.productcompare.entity.ProductBestPrice;
+import com.productcompare.entity.StorePrice;
+import com.productcompare.entity.UserSession;
+import com.productcompare.entity.UserWorkspace;
+import com.productcompare.entity.WorkspaceChange;
+import com.productcompare.repository.CatalogBatchWriter;
+import com.productcompare.repository.FeatureValueRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures feature value insert throughput, in rows per second, through the real persistence path. The entities
+ * are persisted by an EntityManager with {@code hibernate.jdbc.batch_size=50}: once with the IDENTITY ids they used
+ * to have, mapped over the annotations by {@link #IDENTITY_IDS_ORM}, which Hibernate cannot batch, and once with
+ * their pooled table generators. {@code catalogBatchWriter} measures the {@link CatalogBatchWriter} path bulk
+ * writes take. Needs a MySQL server; every trial creates the schema in the {@code benchmark.jdbc.url} database and
+ * drops it afterwards, so point it at a scratch database. Not part of the test suite; build the classpath as
+ * described on {@code ValueNormalizerBenchmark} and run {@code java -Dbenchmark.jdbc.password=... -cp ...
+ * com.productcompare.service.InsertBatchingBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBatchingBenchmark {
+
+	private static final int ROWS = 500;
+	private static final int FEATURES = 10;
+
+	private static final String JDBC_URL = System.getProperty("benchmark.jdbc.url",
+			"jdbc:mysql://localhost:3306/product_compare_benchmark?createDatabaseIfNotExist=true&rewriteBatchedStatements=true");
+	private static final String JDBC_USER = System.getProperty("benchmark.jdbc.user", "root");
+	private static final String JDBC_PASSWORD = System.getProperty("benchmark.jdbc.password", "");
+
+	private static final List<Class<?>> ENTITIES = List.of(
+			UserWorkspace.class, UserSession.class, Product.class, Feature.class, FeatureValue.class,
+			LatestFeatureValue.class, FeatureValueArchive.class, StorePrice.class, ProductBestPrice.class, WorkspaceChange.class
+	);
+
+	/**
+	 * The id mapping the entities had before they moved to pooled table generators.
+	 */
+	static final String IDENTITY_IDS_ORM = """
+			<entity-mappings xmlns="https://jakarta.ee/xml/ns/persistence/orm" version="3.1">
+				<entity class="com.productcompare.entity.Product">
+					<attributes><id name="id"><generated-value strategy="IDENTITY"/></id></attributes>
+				</entity>
+				<entity class="com.productcompare.entity.Feature">
+					<attributes><id name="id"><generated-value strategy="IDENTITY"/></id></attributes>
+				</entity>
+				<entity class="com.productcompare.entity.FeatureValue">
+					<attributes><id name="id"><generated-value strategy="IDENTITY"/></id></attributes>
+				</entity>
+				<entity class="com.productcompare.entity.StorePrice">
+					<attributes><id name="id"><generated-value strategy="IDENTITY"/></id></attributes>
+				</entity>
+			</entity-mappings>
+			""";
+
+	@State(Scope.Benchmark)
+	public static class Catalog {
+		@Param({"identity", "pooled"})
+		public String ids;
+
+		EntityManagerFactory entityManagerFactory;
+		Long productId;
+		List<Long> featureIds;
+		int version;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			entityManagerFactory = entityManagerFactory("identity".equals(ids));
+			createFixture(this);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			entityManagerFactory.close();
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class BatchWriter {
+		EntityManagerFactory entityManagerFactory;
+		JdbcTemplate jdbcTemplate;
+		TransactionTemplate transactionTemplate;
+		Catalog catalog = new Catalog();
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			entityManagerFactory = entityManagerFactory(false);
+			catalog.entityManagerFactory = entityManagerFactory;
+			createFixture(catalog);
+			DriverManagerDataSource dataSource = new DriverManagerDataSource(JDBC_URL, JDBC_USER, JDBC_PASSWORD);
+			jdbcTemplate = new JdbcTemplate(dataSource);
+			transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			entityManagerFactory.close();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public int entityManagerPersist(Catalog catalog) {
+		EntityManager entityManager = catalog.entityManagerFactory.createEntityManager();
+		try {
+			entityManager.getTransaction().begin();
+			Product product = entityManager.getReference(Product.class, catalog.productId);
+			List<Feature> features = new ArrayList<>(FEATURES);
+			for (Long featureId : catalog.featureIds) {
+				features.add(entityManager.getReference(Feature.class, featureId));
+			}
+			LocalDateTime now = LocalDateTime.now();
+			for (int row = 0; row < ROWS; row++) {
+				FeatureValue value = new FeatureValue();
+				value.setProduct(product);
+				value.setFeature(features.get(row % FEATURES));
+				value.setValue((row % 16 + 4) + " GB");
+				value.setVersion(catalog.version + row / FEATURES + 1);
+				value.setUpdatedAt(now);
+				entityManager.persist(value);
+			}
+			entityManager.getTransaction().commit();
+			catalog.version += ROWS / FEATURES;
+			return catalog.version;
+		} finally {
+			entityManager.close();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public int catalogBatchWriter(BatchWriter writer) {
+		Catalog catalog = writer.catalog;
+		List<FeatureValueRow> rows = new ArrayList<>(ROWS);
+		LocalDateTime now = LocalDateTime.now();
+		for (int row = 0; row < ROWS; row++) {
+			rows.add(new FeatureValueRow(
+					catalog.productId,
+					catalog.featureIds.get(row % FEATURES),
+					(row % 16 + 4) + " GB",
+					catalog.version + row / FEATURES + 1,
+					now,
+					null,
+					null,
+					null
+			));
+		}
+		EntityManager entityManager = writer.entityManagerFactory.createEntityManager();
+		try {
+			entityManager.getTransaction().begin();
+			CatalogBatchWriter batchWriter = new CatalogBatchWriter(writer.jdbcTemplate, entityManager);
+			writer.transactionTemplate.executeWithoutResult(status -> batchWriter.insertFeatureValues(rows));
+			entityManager.getTransaction().commit();
+		} finally {
+			entityManager.close();
+		}
+		catalog.version += ROWS / FEATURES;
+		return catalog.version;
+	}
+
+	static EntityManagerFactory entityManagerFactory(boolean identityIds) {
+		Configuration configuration = new Configuration();
+		ENTITIES.forEach(configuration::addAnnotatedClass);
+		if (identityIds) {
+			configuration.addInputStream(new ByteArrayInputStream(IDENTITY_IDS_ORM.getBytes(StandardCharsets.UTF_8)));
+		}
+		configuration.setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy());
+		configuration.setProperty(AvailableSettings.JAKARTA_JDBC_URL, JDBC_URL);
+		configuration.setProperty(AvailableSettings.JAKARTA_JDBC_USER, JDBC_USER);
+		configuration.setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, JDBC_PASSWORD);
+		configuration.setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop");
+		configuration.setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50");
+		configuration.setProperty(AvailableSettings.ORDER_INSERTS, "true");
+		return configuration.buildSessionFactory();
+	}
+
+	private static void createFixture(Catalog catalog) {
+		EntityManager entityManager = catalog.entityManagerFactory.createEntityManager();
+		try {
+			entityManager.getTransaction().begin();
+			UserWorkspace workspace = new UserWorkspace(null, "benchmark", "not-a-login", LocalDateTime.now());
+			entityManager.persist(workspace);
+			Product product = new Product(null, "Benchmark phone", workspace);
+			entityManager.persist(product);
+			List<Long> featureIds = new ArrayList<>(FEATURES);
+			for (int feature = 0; feature < FEATURES; feature++) {
+				Feature saved = new Feature(null, "Benchmark feature " + feature, 1, workspace);
+				entityManager.persist(saved);
+				featureIds.add(saved.getId());
+			}
+			entityManager.getTransaction().commit();
+			catalog.productId = product.getId();
+			catalog.featureIds = featureIds;
+		} finally {
+			entityManager.close();
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(InsertBatchingBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
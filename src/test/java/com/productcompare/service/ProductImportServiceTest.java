@@ -0,0 +1,117 @@
+package com.productcompare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productcompare.dto.ImportRowErrorResponse;
+import com.productcompare.dto.ProductFeatureRequest;
+import com.productcompare.dto.ProductImportResponse;
+import com.productcompare.entity.UserWorkspace;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductImportServiceTest {
+
+	private ProductService productService;
+	private ProductImportService importService;
+	private UserWorkspace workspace;
+	private List<List<ProductImportRow>> chunks;
+
+	@BeforeEach
+	void setUp() {
+		productService = mock(ProductService.class);
+		importService = new ProductImportService(productService, new ObjectMapper(), 2);
+		workspace = new UserWorkspace(7L, "demo", null, null);
+		chunks = new ArrayList<>();
+		when(productService.importProductChunk(eq(workspace), any())).thenAnswer(invocation -> {
+			List<ProductImportRow> chunk = invocation.getArgument(1);
+			chunks.add(List.copyOf(chunk));
+			return new ProductImportResponse(chunk.size(), chunk.size(), 0, List.of());
+		});
+	}
+
+	@Test
+	void csvRowsAreParsedWithQuotingAndSentInChunks() throws IOException {
+		String csv = "Name,Category,Price,RAM,\"Screen, size\"\n"
+				+ "Phone A,Phone,499,8 GB,\"6.1\"\" OLED\"\n"
+				+ "\n"
+				+ "\"Phone \"\"B\"\"\",Phone,\"1,299.00\",12 GB,\n"
+				+ "Phone C,Phone,,6 GB,\"6.7\ninch\"\n";
+
+		ProductImportResponse response = importService.importProducts(workspace, ProductImportService.TEXT_CSV, stream(csv));
+
+		assertThat(response.importedProducts()).isEqualTo(3);
+		assertThat(response.failedRows()).isZero();
+		assertThat(chunks).extracting(List::size).containsExactly(2, 1);
+		ProductImportRow first = chunks.get(0).get(0);
+		assertThat(first.row()).isEqualTo(1L);
+		assertThat(first.request().getName()).isEqualTo("Phone A");
+		assertThat(first.request().getPrice()).isEqualByComparingTo(new BigDecimal("499"));
+		assertThat(first.request().getFeatures())
+				.extracting(ProductFeatureRequest::getName, ProductFeatureRequest::getValue)
+				.containsExactly(
+						tuple("RAM", "8 GB"),
+						tuple("Screen, size", "6.1\" OLED")
+				);
+		ProductImportRow second = chunks.get(0).get(1);
+		assertThat(second.request().getName()).isEqualTo("Phone \"B\"");
+		assertThat(second.request().getPrice()).isEqualByComparingTo(new BigDecimal("1299.00"));
+		assertThat(second.request().getFeatures()).hasSize(1);
+		assertThat(chunks.get(1).get(0).request().getFeatures().get(1).getValue()).isEqualTo("6.7\ninch");
+	}
+
+	@Test
+	void badRowsAreReportedWithoutStoppingTheImport() throws IOException {
+		String csv = "name,price\nPhone A,cheap\nPhone B,10\nPhone C,20,extra\n";
+
+		ProductImportResponse response = importService.importProducts(workspace, ProductImportService.TEXT_CSV, stream(csv));
+
+		assertThat(response.importedProducts()).isEqualTo(1);
+		assertThat(response.failedRows()).isEqualTo(2);
+		assertThat(response.errors()).extracting(ImportRowErrorResponse::row).containsExactly(1L, 3L);
+		assertThat(response.errors().get(0).message()).isEqualTo("Price must be a number");
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	void ndjsonLinesAreImportedAndAFailedChunkFailsEachOfItsRows() throws IOException {
+		when(productService.importProductChunk(eq(workspace), any()))
+				.thenThrow(new DataIntegrityViolationException("duplicate name"))
+				.thenAnswer(invocation -> {
+					List<ProductImportRow> chunk = invocation.getArgument(1);
+					return new ProductImportResponse(chunk.size(), 0, 0, List.of());
+				});
+		String ndjson = "{\"name\":\"Phone A\"}\n{\"name\":\"Phone B\"}\n{not json}\n{\"name\":\"Phone C\"}\n";
+
+		ProductImportResponse response = importService.importProducts(
+				workspace, MediaType.parseMediaType("application/x-ndjson; charset=UTF-8"), stream(ndjson));
+
+		assertThat(response.importedProducts()).isEqualTo(1);
+		assertThat(response.failedRows()).isEqualTo(3);
+		assertThat(response.errors()).extracting(ImportRowErrorResponse::row).containsExactly(1L, 2L, 3L);
+		ArgumentCaptor<List<ProductImportRow>> captor = ArgumentCaptor.forClass(List.class);
+		verify(productService, times(2)).importProductChunk(eq(workspace), captor.capture());
+		assertThat(captor.getAllValues().get(1)).extracting(ProductImportRow::row).containsExactly(4L);
+	}
+
+	private static ByteArrayInputStream stream(String body) {
+		return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+	}
+}
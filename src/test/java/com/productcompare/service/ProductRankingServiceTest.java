@@ -0,0 +1,114 @@
+package com.productcompare.service;
+
+import com.productcompare.dto.FeatureContributionResponse;
+import com.productcompare.dto.RankedProductResponse;
+import com.productcompare.entity.Feature;
+import com.productcompare.entity.Product;
+import com.productcompare.entity.UserWorkspace;
+import com.productcompare.repository.FeatureRepository;
+import com.productcompare.repository.LatestFeatureValueRepository;
+import com.productcompare.repository.NumericCellView;
+import com.productcompare.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductRankingServiceTest {
+
+	private static final Long WORKSPACE_ID = 7L;
+
+	private ProductRepository productRepository;
+	private FeatureRepository featureRepository;
+	private LatestFeatureValueRepository latestFeatureValueRepository;
+	private ProductRankingService rankingService;
+	private UserWorkspace workspace;
+
+	@BeforeEach
+	void setUp() {
+		productRepository = mock(ProductRepository.class);
+		featureRepository = mock(FeatureRepository.class);
+		latestFeatureValueRepository = mock(LatestFeatureValueRepository.class);
+		rankingService = new ProductRankingService(productRepository, featureRepository, latestFeatureValueRepository);
+		workspace = new UserWorkspace(WORKSPACE_ID, "demo", null, null);
+	}
+
+	@Test
+	void weighsNormalizedFeaturesByImportanceAndKeepsTheTopK() {
+		when(productRepository.findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID)).thenReturn(List.of(
+				new Product(1L, "Phone A", workspace),
+				new Product(2L, "Phone B", workspace),
+				new Product(3L, "Phone C", workspace)
+		));
+		when(featureRepository.findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID)).thenReturn(List.of(
+				new Feature(10L, "Launch Price", 1, workspace),
+				new Feature(11L, "OS", 5, workspace),
+				new Feature(12L, "RAM", 3, workspace)
+		));
+		when(latestFeatureValueRepository.findNumericCellsByWorkspaceId(WORKSPACE_ID)).thenReturn(List.of(
+				new NumericCellView(1L, 10L, 900, null),
+				new NumericCellView(2L, 10L, 500, null),
+				new NumericCellView(3L, 10L, 700, null),
+				new NumericCellView(1L, 11L, 14, null),
+				new NumericCellView(2L, 11L, 14, null),
+				new NumericCellView(1L, 12L, 12, null),
+				new NumericCellView(2L, 12L, 8, null)
+		));
+
+		List<RankedProductResponse> ranking = rankingService.rankProducts(workspace, 2);
+
+		assertThat(ranking).extracting(RankedProductResponse::productId).containsExactly(1L, 2L);
+		assertThat(ranking.get(0).score()).isCloseTo(0.75, within(1e-9));
+		assertThat(ranking.get(1).score()).isCloseTo(0.25, within(1e-9));
+		assertThat(ranking.get(0).contributions())
+				.extracting(FeatureContributionResponse::featureId)
+				.containsExactly(10L, 12L);
+		assertThat(ranking.get(1).contributions().get(0).value()).isEqualTo(500.0);
+	}
+
+	@Test
+	void skipsLinkAndCategoricalFeaturesAndValuesOutsideTheDominantUnit() {
+		when(productRepository.findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID)).thenReturn(List.of(
+				new Product(1L, "Phone A", workspace),
+				new Product(2L, "Phone B", workspace),
+				new Product(3L, "Phone C", workspace)
+		));
+		when(featureRepository.findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID)).thenReturn(List.of(
+				new Feature(10L, "Battery", 1, workspace),
+				new Feature(11L, "Buy Link", 5, workspace),
+				new Feature(12L, "Processor", 5, workspace)
+		));
+		when(latestFeatureValueRepository.findNumericCellsByWorkspaceId(WORKSPACE_ID)).thenReturn(List.of(
+				new NumericCellView(1L, 10L, 5000, "mah"),
+				new NumericCellView(2L, 10L, 4000, "mah"),
+				new NumericCellView(3L, 10L, 9000, "h"),
+				new NumericCellView(1L, 11L, 1, null),
+				new NumericCellView(2L, 11L, 2, null),
+				new NumericCellView(1L, 12L, 4, null),
+				new NumericCellView(2L, 12L, 8, null)
+		));
+
+		List<RankedProductResponse> ranking = rankingService.rankProducts(workspace, 3);
+
+		assertThat(ranking).extracting(RankedProductResponse::productId).containsExactly(1L, 2L, 3L);
+		assertThat(ranking.get(0).score()).isCloseTo(1.0, within(1e-9));
+		assertThat(ranking.get(0).contributions())
+				.extracting(FeatureContributionResponse::featureId)
+				.containsExactly(10L);
+		assertThat(ranking.get(2).score()).isZero();
+		assertThat(ranking.get(2).contributions().get(0).value()).isNull();
+	}
+
+	@Test
+	void rejectsTopOutsideTheAllowedRange() {
+		assertThatThrownBy(() -> rankingService.rankProducts(workspace, 0))
+				.isInstanceOf(ResponseStatusException.class);
+	}
+}
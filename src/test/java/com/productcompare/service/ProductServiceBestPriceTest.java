@@ -0,0 +1,116 @@
+package com.productcompare.service;
+
+import com.productcompare.dto.StorePriceRequest;
+import com.productcompare.entity.Product;
+import com.productcompare.entity.ProductBestPrice;
+import com.productcompare.entity.StorePrice;
+import com.productcompare.entity.UserWorkspace;
+import com.productcompare.repository.CatalogBatchWriter;
+import com.productcompare.repository.FeatureRepository;
+import com.productcompare.repository.FeatureValueRepository;
+import com.productcompare.repository.LatestFeatureValueRepository;
+import com.productcompare.repository.ProductBestPriceRepository;
+import com.productcompare.repository.ProductRepository;
+import com.productcompare.repository.StorePriceRepository;
+import com.productcompare.repository.UserWorkspaceRepository;
+import com.productcompare.repository.WorkspaceChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductServiceBestPriceTest {
+
+	private static final Long WORKSPACE_ID = 7L;
+	private static final Long PRODUCT_ID = 1L;
+
+	private StorePriceRepository storePriceRepository;
+	private ProductBestPriceRepository productBestPriceRepository;
+	private ProductService productService;
+	private UserWorkspace workspace;
+	private ProductBestPrice best;
+
+	@BeforeEach
+	void setUp() {
+		ProductRepository productRepository = mock(ProductRepository.class);
+		UserWorkspaceRepository userWorkspaceRepository = mock(UserWorkspaceRepository.class);
+		storePriceRepository = mock(StorePriceRepository.class);
+		productBestPriceRepository = mock(ProductBestPriceRepository.class);
+		productService = new ProductService(
+				productRepository,
+				mock(FeatureRepository.class),
+				mock(FeatureValueRepository.class),
+				storePriceRepository,
+				mock(LatestFeatureValueRepository.class),
+				userWorkspaceRepository,
+				new ComparisonMatrixCache(1_000_000, new SimpleMeterRegistry()),
+				mock(WorkspaceChangeRepository.class),
+				new ValueNormalizer(1_000),
+				new SimilarProductIndex(16, new SimpleMeterRegistry()),
+				productBestPriceRepository,
+				mock(CatalogBatchWriter.class),
+				mock(WorkspaceRevisionLog.class)
+		);
+		workspace = new UserWorkspace(WORKSPACE_ID, "demo", null, null);
+		when(productRepository.findByIdAndWorkspaceId(PRODUCT_ID, WORKSPACE_ID))
+				.thenReturn(Optional.of(new Product(PRODUCT_ID, "Phone A", workspace)));
+		when(userWorkspaceRepository.findRevisionById(WORKSPACE_ID)).thenReturn(Optional.of(2L));
+		when(storePriceRepository.findByProductIdAndStoreNameIgnoreCase(anyLong(), any())).thenReturn(Optional.empty());
+		when(storePriceRepository.save(any())).thenAnswer(invocation -> {
+			StorePrice saved = invocation.getArgument(0);
+			saved.setId(30L);
+			return saved;
+		});
+
+		best = new ProductBestPrice(PRODUCT_ID, WORKSPACE_ID);
+		best.setStorePriceId(10L);
+		best.setStoreName("Amazon");
+		best.setPrice(new BigDecimal("499.00"));
+		best.setStoreCount(2);
+		when(productBestPriceRepository.findForUpdate(PRODUCT_ID)).thenReturn(Optional.of(best));
+	}
+
+	@Test
+	void cheaperStoreReplacesTheBestPriceWithoutReadingOtherStores() {
+		productService.addStorePrice(workspace, PRODUCT_ID, new StorePriceRequest("Flipkart", new BigDecimal("479.00"), "https://flipkart.com/a"));
+
+		assertThat(best.getStorePriceId()).isEqualTo(30L);
+		assertThat(best.getStoreName()).isEqualTo("Flipkart");
+		assertThat(best.getPrice()).isEqualByComparingTo("479.00");
+		assertThat(best.getStoreCount()).isEqualTo(3);
+		verify(productBestPriceRepository).save(best);
+		verify(storePriceRepository, never()).findFirstByProductIdOrderByPriceAscStoreNameAsc(anyLong());
+	}
+
+	@Test
+	void removingTheCheapestStoreFallsBackToTheNextCheapest() {
+		StorePrice cheapest = store(10L, "Amazon", "499.00");
+		when(storePriceRepository.findByIdAndProductId(10L, PRODUCT_ID)).thenReturn(Optional.of(cheapest));
+		when(storePriceRepository.findFirstByProductIdOrderByPriceAscStoreNameAsc(PRODUCT_ID))
+				.thenReturn(Optional.of(store(11L, "Croma", "529.00")));
+
+		productService.deleteStorePrice(workspace, PRODUCT_ID, 10L);
+
+		assertThat(best.getStorePriceId()).isEqualTo(11L);
+		assertThat(best.getPrice()).isEqualByComparingTo("529.00");
+		assertThat(best.getStoreCount()).isEqualTo(1);
+	}
+
+	private static StorePrice store(Long id, String storeName, String price) {
+		StorePrice storePrice = new StorePrice(id, null, storeName, new BigDecimal(price), null);
+		// product_id is a read-only column mapped next to the association, so only Hibernate fills it.
+		ReflectionTestUtils.setField(storePrice, "productId", PRODUCT_ID);
+		return storePrice;
+	}
+}
@@ -0,0 +1,359 @@
+package com.productcompare.service;
+
+import com.productcompare.dto.ComparisonCellChangeResponse;
+import com.productcompare.dto.ComparisonChangesResponse;
+import com.productcompare.dto.ComparisonResponse;
+import com.productcompare.dto.ComparisonSliceResponse;
+import com.productcompare.dto.ComparisonWindowRequest;
+import com.productcompare.dto.FeatureValueCellResponse;
+import com.productcompare.dto.ItemResponse;
+import com.productcompare.entity.Feature;
+import com.productcompare.entity.LatestFeatureValue;
+import com.productcompare.entity.Product;
+import com.productcompare.entity.UserWorkspace;
+import com.productcompare.entity.WorkspaceChange;
+import com.productcompare.entity.WorkspaceChangeType;
+import com.productcompare.repository.CatalogBatchWriter;
+import com.productcompare.repository.FeatureRepository;
+import com.productcompare.repository.FeatureValueRepository;
+import com.productcompare.repository.FeatureValueVersionView;
+import com.productcompare.repository.LatestFeatureValueRepository;
+import com.productcompare.repository.ProductBestPriceRepository;
+import com.productcompare.repository.ProductRepository;
+import com.productcompare.repository.StorePriceRepository;
+import com.productcompare.repository.UserWorkspaceRepository;
+import com.productcompare.repository.WorkspaceChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class ProductServiceComparisonTest {
+
+	private static final Long WORKSPACE_ID = 7L;
+
+	private ProductRepository productRepository;
+	private FeatureRepository featureRepository;
+	private FeatureValueRepository featureValueRepository;
+	private LatestFeatureValueRepository latestFeatureValueRepository;
+	private UserWorkspaceRepository userWorkspaceRepository;
+	private WorkspaceChangeRepository workspaceChangeRepository;
+	private ProductService productService;
+	private UserWorkspace workspace;
+
+	@BeforeEach
+	void setUp() {
+		productRepository = mock(ProductRepository.class);
+		featureRepository = mock(FeatureRepository.class);
+		featureValueRepository = mock(FeatureValueRepository.class);
+		latestFeatureValueRepository = mock(LatestFeatureValueRepository.class);
+		userWorkspaceRepository = mock(UserWorkspaceRepository.class);
+		workspaceChangeRepository = mock(WorkspaceChangeRepository.class);
+		productService = new ProductService(
+				productRepository,
+				featureRepository,
+				featureValueRepository,
+				mock(StorePriceRepository.class),
+				latestFeatureValueRepository,
+				userWorkspaceRepository,
+				new ComparisonMatrixCache(1_000_000, new SimpleMeterRegistry()),
+				workspaceChangeRepository,
+				new ValueNormalizer(1_000),
+				new SimilarProductIndex(16, new SimpleMeterRegistry()),
+				mock(ProductBestPriceRepository.class),
+				mock(CatalogBatchWriter.class),
+				mock(WorkspaceRevisionLog.class)
+		);
+		when(userWorkspaceRepository.findRevisionById(WORKSPACE_ID)).thenReturn(Optional.of(1L));
+		workspace = new UserWorkspace(WORKSPACE_ID, "demo", null, null);
+	}
+
+	@ParameterizedTest
+	@CsvSource({"1, 1", "3, 2", "400, 60"})
+	void getComparisonUsesFixedQueryCountRegardlessOfMatrixSize(int productCount, int featureCount) {
+		List<Product> products = new ArrayList<>();
+		for (long p = 1; p <= productCount; p++) {
+			products.add(new Product(p, String.format("Product %04d", p), workspace));
+		}
+		List<Feature> features = new ArrayList<>();
+		for (long f = 1; f <= featureCount; f++) {
+			features.add(new Feature(1000 + f, String.format("Feature %03d", f), 1, workspace));
+		}
+
+		// Every cell has a second version except the last product, which has no values at all.
+		List<LatestFeatureValue> latestValues = new ArrayList<>();
+		for (long p = 1; p < productCount; p++) {
+			for (long f = 1; f <= featureCount; f++) {
+				String previous = "v" + (p + f - 1);
+				String current = "v" + (p + f);
+				LatestFeatureValue latest = new LatestFeatureValue(WORKSPACE_ID, p, 1000 + f);
+				latest.setPreviousValue(previous);
+				latest.setValue(current);
+				latest.setVersion(2);
+				latest.setChanged(true);
+				latest.setTrend(current.compareToIgnoreCase(previous) > 0 ? "up" : "down");
+				latest.setUpdatedAt(LocalDateTime.now());
+				latestValues.add(latest);
+			}
+		}
+
+		when(productRepository.findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID)).thenReturn(products);
+		when(featureRepository.findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID)).thenReturn(features);
+		when(latestFeatureValueRepository.findByWorkspaceId(WORKSPACE_ID)).thenReturn(latestValues);
+
+		ComparisonResponse response = productService.getComparison(workspace);
+
+		verify(productRepository, times(1)).findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID);
+		verify(featureRepository, times(1)).findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID);
+		verify(latestFeatureValueRepository, times(1)).findByWorkspaceId(WORKSPACE_ID);
+		verifyNoMoreInteractions(productRepository, featureRepository, latestFeatureValueRepository);
+		verifyNoInteractions(featureValueRepository);
+
+		assertThat(response.products()).hasSize(productCount);
+		assertThat(response.rows()).hasSize(featureCount);
+		for (int f = 0; f < featureCount; f++) {
+			List<FeatureValueCellResponse> cells = response.rows().get(f).cells();
+			assertThat(cells).hasSize(productCount);
+			for (int p = 0; p < productCount - 1; p++) {
+				long productId = p + 1;
+				String current = "v" + (productId + f + 1);
+				String previous = "v" + (productId + f);
+				String trend = current.compareToIgnoreCase(previous) > 0 ? "up" : "down";
+				assertThat(cells.get(p)).isEqualTo(new FeatureValueCellResponse(productId, current, true, trend));
+			}
+			assertThat(cells.get(productCount - 1))
+					.isEqualTo(new FeatureValueCellResponse((long) productCount, "-", false, "same"));
+		}
+	}
+
+	@Test
+	void getComparisonServesCachedMatrixUntilWorkspaceRevisionChanges() {
+		when(productRepository.findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID))
+				.thenReturn(List.of(new Product(1L, "Phone A", workspace)));
+		when(featureRepository.findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID))
+				.thenReturn(List.of(new Feature(10L, "RAM", 1, workspace)));
+		when(latestFeatureValueRepository.findByWorkspaceId(WORKSPACE_ID)).thenReturn(List.of());
+
+		ComparisonResponse first = productService.getComparison(workspace);
+		ComparisonResponse second = productService.getComparison(workspace);
+
+		assertThat(second).isEqualTo(first);
+		verify(productRepository, times(1)).findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID);
+		verify(latestFeatureValueRepository, times(1)).findByWorkspaceId(WORKSPACE_ID);
+
+		when(userWorkspaceRepository.findRevisionById(WORKSPACE_ID)).thenReturn(Optional.of(2L));
+		ComparisonResponse rebuilt = productService.getComparison(workspace);
+
+		assertThat(rebuilt).isNotSameAs(first).isEqualTo(first);
+		verify(productRepository, times(2)).findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID);
+		verify(latestFeatureValueRepository, times(2)).findByWorkspaceId(WORKSPACE_ID);
+	}
+
+	@Test
+	void getComparisonSliceLoadsOnlyTheRequestedWindow() {
+		Product phoneA = new Product(1L, "Phone A", workspace);
+		Product phoneB = new Product(2L, "Phone B", workspace);
+		Product phoneC = new Product(3L, "Phone C", workspace);
+		Feature ram = new Feature(10L, "RAM", 1, workspace);
+		String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString("Phone A".getBytes());
+
+		when(productRepository.findByWorkspaceIdAndNameGreaterThanOrderByNameAsc(WORKSPACE_ID, "Phone A", Limit.of(2)))
+				.thenReturn(List.of(phoneB, phoneC));
+		when(featureRepository.findByWorkspaceIdAndIdInOrderByNameAsc(WORKSPACE_ID, List.of(10L))).thenReturn(List.of(ram));
+		LatestFeatureValue latest = new LatestFeatureValue(WORKSPACE_ID, 2L, 10L);
+		latest.setValue("8 GB");
+		latest.setTrend("same");
+		when(latestFeatureValueRepository.findByWorkspaceIdAndProductIdInAndFeatureIdIn(WORKSPACE_ID, List.of(2L), List.of(10L)))
+				.thenReturn(List.of(latest));
+
+		ComparisonSliceResponse slice = productService.getComparisonSlice(
+				workspace,
+				new ComparisonWindowRequest(null, cursor, 1, List.of(10L), null, null)
+		);
+
+		assertThat(slice.products()).extracting("id").containsExactly(2L);
+		assertThat(slice.rows()).hasSize(1);
+		assertThat(slice.rows().get(0).cells()).containsExactly(new FeatureValueCellResponse(2L, "8 GB", false, "same"));
+		assertThat(new String(Base64.getUrlDecoder().decode(slice.nextProductCursor()))).isEqualTo("Phone B");
+		assertThat(slice.nextFeatureCursor()).isNull();
+		verify(latestFeatureValueRepository, never()).findByWorkspaceId(WORKSPACE_ID);
+		verifyNoInteractions(featureValueRepository);
+	}
+
+	@Test
+	void compareProductsAcrossWorkspacesUsesOneQueryPerEntityType() {
+		UserWorkspace other = new UserWorkspace(8L, "other", null, null);
+		Product phoneA = new Product(1L, "Phone A", workspace);
+		Product phoneB = new Product(2L, "Phone B", other);
+		Product phoneC = new Product(3L, "Phone C", workspace);
+		Feature ram = new Feature(10L, "RAM", 1, workspace);
+		Feature otherRam = new Feature(20L, "ram", 1, other);
+		Feature battery = new Feature(21L, "Battery", 1, other);
+		LatestFeatureValue phoneARam = new LatestFeatureValue(WORKSPACE_ID, 1L, 10L);
+		phoneARam.setValue("8 GB");
+		phoneARam.setTrend("same");
+		LatestFeatureValue phoneBRam = new LatestFeatureValue(8L, 2L, 20L);
+		phoneBRam.setValue("12 GB");
+		phoneBRam.setChanged(true);
+		phoneBRam.setTrend("down");
+		List<Long> ids = List.of(3L, 1L, 2L);
+
+		when(productRepository.findAllWithWorkspaceByIdIn(ids)).thenReturn(List.of(phoneA, phoneB, phoneC));
+		when(featureRepository.findByWorkspaceIdInOrderByNameAsc(Set.of(WORKSPACE_ID, 8L)))
+				.thenReturn(List.of(battery, otherRam, ram));
+		when(latestFeatureValueRepository.findByProductIdIn(ids)).thenReturn(List.of(phoneARam, phoneBRam));
+
+		ComparisonResponse response = productService.compareProducts(ids);
+
+		assertThat(response.products()).extracting("id").containsExactly(3L, 1L, 2L);
+		assertThat(response.features()).extracting("id").containsExactly(21L, 10L);
+		assertThat(response.rows().get(0).cells()).containsExactly(
+				new FeatureValueCellResponse(3L, "-", false, "same"),
+				new FeatureValueCellResponse(1L, "-", false, "same"),
+				new FeatureValueCellResponse(2L, "-", false, "same")
+		);
+		assertThat(response.rows().get(1).cells()).containsExactly(
+				new FeatureValueCellResponse(3L, "-", false, "same"),
+				new FeatureValueCellResponse(1L, "8 GB", false, "same"),
+				new FeatureValueCellResponse(2L, "12 GB", true, "down")
+		);
+		verify(productRepository, times(1)).findAllWithWorkspaceByIdIn(ids);
+		verify(featureRepository, times(1)).findByWorkspaceIdInOrderByNameAsc(anyCollection());
+		verify(latestFeatureValueRepository, times(1)).findByProductIdIn(ids);
+		verifyNoMoreInteractions(productRepository, featureRepository, latestFeatureValueRepository);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void backfillFoldsLatestTwoVersionsPerCellAndSkipsExistingRows() {
+		LocalDateTime now = LocalDateTime.now();
+		LatestFeatureValue existing = new LatestFeatureValue(WORKSPACE_ID, 3L, 10L);
+		when(latestFeatureValueRepository.findByWorkspaceId(WORKSPACE_ID)).thenReturn(List.of(existing));
+		when(featureValueRepository.findLatestTwoVersionsByWorkspaceId(WORKSPACE_ID)).thenReturn(List.of(
+				new VersionRow(1L, 10L, "12 GB", 3, now),
+				new VersionRow(1L, 10L, "8 GB", 2, now),
+				new VersionRow(1L, 11L, "5000 mAh", 1, now),
+				new VersionRow(2L, 10L, "6 GB", 2, now),
+				new VersionRow(2L, 10L, "6 GB", 1, now),
+				new VersionRow(3L, 10L, "4 GB", 1, now)
+		));
+
+		int backfilled = productService.backfillLatestFeatureValues(WORKSPACE_ID);
+
+		ArgumentCaptor<List<LatestFeatureValue>> saved = ArgumentCaptor.forClass(List.class);
+		verify(latestFeatureValueRepository).saveAll(saved.capture());
+		assertThat(backfilled).isEqualTo(3);
+		assertThat(saved.getValue())
+				.extracting(LatestFeatureValue::getProductId, LatestFeatureValue::getFeatureId, LatestFeatureValue::getValue,
+						LatestFeatureValue::getPreviousValue, LatestFeatureValue::getVersion, LatestFeatureValue::isChanged,
+						LatestFeatureValue::getTrend)
+				.containsExactly(
+						Tuple.tuple(1L, 10L, "12 GB", "8 GB", 3, true, "up"),
+						Tuple.tuple(1L, 11L, "5000 mAh", null, 1, false, "same"),
+						Tuple.tuple(2L, 10L, "6 GB", "6 GB", 2, false, "same")
+				);
+		verify(featureValueRepository, never()).findTop2ByProductIdAndFeatureIdOrderByVersionDesc(3L, 10L);
+	}
+
+	@Test
+	void getComparisonChangesFoldsTheLogIntoCurrentItemsAndCells() {
+		when(userWorkspaceRepository.findRevisionById(WORKSPACE_ID)).thenReturn(Optional.of(3L));
+		when(workspaceChangeRepository.findByWorkspaceIdAndRevisionGreaterThanOrderByRevisionAscIdAsc(WORKSPACE_ID, 1L, Limit.of(2001)))
+				.thenReturn(List.of(
+						logged(2, WorkspaceChangeType.CELL, 1L, 10L),
+						logged(2, WorkspaceChangeType.FEATURE, null, 11L),
+						logged(3, WorkspaceChangeType.CELL, 3L, 10L),
+						logged(3, WorkspaceChangeType.PRODUCT_REMOVED, 3L, null),
+						logged(3, WorkspaceChangeType.CELL, 2L, 11L)
+				));
+		when(featureRepository.findByWorkspaceIdAndIdInOrderByNameAsc(WORKSPACE_ID, Set.of(11L)))
+				.thenReturn(List.of(new Feature(11L, "Battery", 1, workspace)));
+		LatestFeatureValue ram = new LatestFeatureValue(WORKSPACE_ID, 1L, 10L);
+		ram.setValue("12 GB");
+		ram.setChanged(true);
+		ram.setTrend("up");
+		when(latestFeatureValueRepository.findByWorkspaceIdAndProductIdInAndFeatureIdIn(WORKSPACE_ID, Set.of(1L, 2L), Set.of(10L, 11L)))
+				.thenReturn(List.of(ram));
+
+		ComparisonChangesResponse changes = productService.getComparisonChanges(workspace, 1L);
+
+		assertThat(changes.revision()).isEqualTo(3L);
+		assertThat(changes.snapshotRequired()).isFalse();
+		assertThat(changes.products()).isEmpty();
+		assertThat(changes.features()).containsExactly(new ItemResponse(11L, "Battery"));
+		assertThat(changes.removedProductIds()).containsExactly(3L);
+		assertThat(changes.cells()).containsExactly(
+				new ComparisonCellChangeResponse(1L, 10L, "12 GB", true, "up"),
+				new ComparisonCellChangeResponse(2L, 11L, "-", false, "same")
+		);
+		verifyNoInteractions(productRepository);
+	}
+
+	@Test
+	void getComparisonChangesSignalsSnapshotWhenTheLogWasTrimmed() {
+		when(userWorkspaceRepository.findRevisionById(WORKSPACE_ID)).thenReturn(Optional.of(9L));
+		when(workspaceChangeRepository.findByWorkspaceIdAndRevisionGreaterThanOrderByRevisionAscIdAsc(WORKSPACE_ID, 2L, Limit.of(2001)))
+				.thenReturn(List.of(logged(5, WorkspaceChangeType.CELL, 1L, 10L)));
+
+		ComparisonChangesResponse changes = productService.getComparisonChanges(workspace, 2L);
+
+		assertThat(changes).isEqualTo(ComparisonChangesResponse.snapshotRequired(9L));
+		assertThat(productService.getComparisonChanges(workspace, 9L).snapshotRequired()).isFalse();
+		verifyNoInteractions(latestFeatureValueRepository);
+	}
+
+	private static WorkspaceChange logged(long revision, WorkspaceChangeType type, Long productId, Long featureId) {
+		WorkspaceChange change = new WorkspaceChange(WORKSPACE_ID, type, productId, featureId);
+		change.setRevision(revision);
+		return change;
+	}
+
+	private record VersionRow(Long productId, Long featureId, String value, int version, LocalDateTime updatedAt)
+			implements FeatureValueVersionView {
+		@Override
+		public Long getProductId() {
+			return productId;
+		}
+
+		@Override
+		public Long getFeatureId() {
+			return featureId;
+		}
+
+		@Override
+		public String getValue() {
+			return value;
+		}
+
+		@Override
+		public int getVersion() {
+			return version;
+		}
+
+		@Override
+		public LocalDateTime getUpdatedAt() {
+			return updatedAt;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package com.productcompare.service;
+
+import com.productcompare.dto.FeatureValueResponse;
+import com.productcompare.dto.FeatureValueUpdateRequest;
+import com.productcompare.entity.Feature;
+import com.productcompare.entity.LatestFeatureValue;
+import com.productcompare.entity.Product;
+import com.productcompare.entity.UserWorkspace;
+import com.productcompare.repository.CatalogBatchWriter;
+import com.productcompare.repository.CellKey;
+import com.productcompare.repository.FeatureRepository;
+import com.productcompare.repository.FeatureValueRepository;
+import com.productcompare.repository.FeatureValueRow;
+import com.productcompare.repository.LatestFeatureValueRepository;
+import com.productcompare.repository.ProductBestPriceRepository;
+import com.productcompare.repository.ProductRepository;
+import com.productcompare.repository.StorePriceRepository;
+import com.productcompare.repository.UserWorkspaceRepository;
+import com.productcompare.repository.WorkspaceChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ProductServiceFeatureValueBatchTest {
+
+	private static final Long WORKSPACE_ID = 7L;
+
+	private ProductRepository productRepository;
+	private FeatureRepository featureRepository;
+	private FeatureValueRepository featureValueRepository;
+	private LatestFeatureValueRepository latestFeatureValueRepository;
+	private CatalogBatchWriter catalogBatchWriter;
+	private ProductService productService;
+	private UserWorkspace workspace;
+
+	@BeforeEach
+	void setUp() {
+		productRepository = mock(ProductRepository.class);
+		featureRepository = mock(FeatureRepository.class);
+		featureValueRepository = mock(FeatureValueRepository.class);
+		latestFeatureValueRepository = mock(LatestFeatureValueRepository.class);
+		catalogBatchWriter = mock(CatalogBatchWriter.class);
+		UserWorkspaceRepository userWorkspaceRepository = mock(UserWorkspaceRepository.class);
+		productService = new ProductService(
+				productRepository,
+				featureRepository,
+				featureValueRepository,
+				mock(StorePriceRepository.class),
+				latestFeatureValueRepository,
+				userWorkspaceRepository,
+				new ComparisonMatrixCache(1_000_000, new SimpleMeterRegistry()),
+				mock(WorkspaceChangeRepository.class),
+				new ValueNormalizer(1_000),
+				new SimilarProductIndex(16, new SimpleMeterRegistry()),
+				mock(ProductBestPriceRepository.class),
+				catalogBatchWriter,
+				mock(WorkspaceRevisionLog.class)
+		);
+		workspace = new UserWorkspace(WORKSPACE_ID, "demo", null, null);
+		when(userWorkspaceRepository.findRevisionById(WORKSPACE_ID)).thenReturn(Optional.of(4L));
+		when(productRepository.findByWorkspaceIdAndIdInOrderByNameAsc(WORKSPACE_ID, Set.of(1L, 2L))).thenReturn(List.of(
+				new Product(1L, "Phone A", workspace),
+				new Product(2L, "Phone B", workspace)
+		));
+		when(featureRepository.findByWorkspaceIdAndIdInOrderByNameAsc(WORKSPACE_ID, Set.of(10L))).thenReturn(List.of(
+				new Feature(10L, "RAM", 1, workspace)
+		));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	void locksEveryCellInIndexOrderAndWritesTheNextVersionsInOneBatch() {
+		LatestFeatureValue existing = new LatestFeatureValue(WORKSPACE_ID, 1L, 10L);
+		existing.setId(50L);
+		existing.setValue("8 GB");
+		existing.setVersion(3);
+		LatestFeatureValue created = new LatestFeatureValue(WORKSPACE_ID, 2L, 10L);
+		created.setId(51L);
+		created.setValue("");
+		when(latestFeatureValueRepository.findForUpdate(1L, List.of(10L))).thenReturn(List.of(existing));
+		when(latestFeatureValueRepository.findForUpdate(2L, List.of(10L))).thenReturn(List.of(created));
+
+		List<FeatureValueResponse> responses = productService.updateFeatureValues(workspace, List.of(
+				new FeatureValueUpdateRequest(2L, 10L, "6 GB"),
+				new FeatureValueUpdateRequest(1L, 10L, " 12 GB ")
+		));
+
+		assertThat(responses)
+				.extracting(FeatureValueResponse::getProductId, FeatureValueResponse::getValue, FeatureValueResponse::isChanged, FeatureValueResponse::getTrend)
+				.containsExactly(tuple(2L, "6 GB", false, "same"), tuple(1L, "12 GB", true, "up"));
+		ArgumentCaptor<List<FeatureValueRow>> rows = ArgumentCaptor.forClass(List.class);
+		verify(catalogBatchWriter).insertFeatureValues(rows.capture());
+		assertThat(rows.getValue()).extracting(FeatureValueRow::productId, FeatureValueRow::version)
+				.containsExactly(tuple(2L, 1), tuple(1L, 4));
+		verify(catalogBatchWriter).insertVersionCounters(WORKSPACE_ID, List.of(new CellKey(1L, 10L), new CellKey(2L, 10L)));
+		assertThat(existing.getVersion()).isEqualTo(4);
+		assertThat(created.getVersion()).isEqualTo(1);
+		assertThat(created.getPreviousValue()).isNull();
+		assertThat(existing.getPreviousValue()).isEqualTo("8 GB");
+		verifyNoInteractions(featureValueRepository);
+	}
+
+	@Test
+	void rejectsTheWholeBatchWhenOneCellIsInvalid() {
+		assertThatThrownBy(() -> productService.updateFeatureValues(workspace, List.of(
+				new FeatureValueUpdateRequest(1L, 10L, "12 GB"),
+				new FeatureValueUpdateRequest(2L, 10L, " ")
+		))).isInstanceOf(ResponseStatusException.class);
+
+		assertThatThrownBy(() -> productService.updateFeatureValues(workspace, List.of(
+				new FeatureValueUpdateRequest(1L, 10L, "12 GB"),
+				new FeatureValueUpdateRequest(1L, 10L, "16 GB")
+		))).isInstanceOf(ResponseStatusException.class)
+				.hasMessageContaining("once per request");
+		verifyNoInteractions(latestFeatureValueRepository, catalogBatchWriter);
+	}
+}
@@ -0,0 +1,154 @@
+package com.productcompare.service;
+
+import com.productcompare.dto.FeatureValueHistoryPageResponse;
+import com.productcompare.dto.FeatureValueHistoryResponse;
+import com.productcompare.entity.Feature;
+import com.productcompare.entity.FeatureValue;
+import com.productcompare.entity.Product;
+import com.productcompare.entity.UserWorkspace;
+import com.productcompare.repository.CatalogBatchWriter;
+import com.productcompare.repository.FeatureRepository;
+import com.productcompare.repository.FeatureValueRepository;
+import com.productcompare.repository.FeatureValueVersionView;
+import com.productcompare.repository.LatestFeatureValueRepository;
+import com.productcompare.repository.ProductBestPriceRepository;
+import com.productcompare.repository.ProductRepository;
+import com.productcompare.repository.StorePriceRepository;
+import com.productcompare.repository.UserWorkspaceRepository;
+import com.productcompare.repository.WorkspaceChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductServiceHistoryPageTest {
+
+	private static final Long WORKSPACE_ID = 7L;
+	private static final Long PRODUCT_ID = 1L;
+	private static final Long FEATURE_ID = 10L;
+	private static final String[] VALUES = {"4 GB", "6 GB", "6 GB", "8 GB", "6 GB", "12 GB", "12 GB"};
+
+	private FeatureValueRepository featureValueRepository;
+	private ProductService productService;
+	private UserWorkspace workspace;
+
+	@BeforeEach
+	void setUp() {
+		ProductRepository productRepository = mock(ProductRepository.class);
+		FeatureRepository featureRepository = mock(FeatureRepository.class);
+		featureValueRepository = mock(FeatureValueRepository.class);
+		productService = new ProductService(
+				productRepository,
+				featureRepository,
+				featureValueRepository,
+				mock(StorePriceRepository.class),
+				mock(LatestFeatureValueRepository.class),
+				mock(UserWorkspaceRepository.class),
+				new ComparisonMatrixCache(1_000_000, new SimpleMeterRegistry()),
+				mock(WorkspaceChangeRepository.class),
+				new ValueNormalizer(1_000),
+				new SimilarProductIndex(16, new SimpleMeterRegistry()),
+				mock(ProductBestPriceRepository.class),
+				mock(CatalogBatchWriter.class),
+				mock(WorkspaceRevisionLog.class)
+		);
+		workspace = new UserWorkspace(WORKSPACE_ID, "demo", null, null);
+		Product product = new Product(PRODUCT_ID, "Phone A", workspace);
+		Feature feature = new Feature(FEATURE_ID, "RAM", 1, workspace);
+		when(productRepository.findByIdAndWorkspaceId(PRODUCT_ID, WORKSPACE_ID)).thenReturn(Optional.of(product));
+		when(featureRepository.findByIdAndWorkspaceId(FEATURE_ID, WORKSPACE_ID)).thenReturn(Optional.of(feature));
+
+		List<FeatureValue> history = new ArrayList<>();
+		for (int version = VALUES.length; version >= 1; version--) {
+			FeatureValue value = new FeatureValue();
+			value.setProduct(product);
+			value.setFeature(feature);
+			value.setVersion(version);
+			value.setValue(VALUES[version - 1]);
+			value.setUpdatedAt(updatedAt(version));
+			history.add(value);
+		}
+		when(featureValueRepository.findByProductIdAndFeatureIdOrderByVersionDesc(PRODUCT_ID, FEATURE_ID)).thenReturn(history);
+		when(featureValueRepository.findVersionsFrom(eq(PRODUCT_ID), eq(FEATURE_ID), anyInt(), any(Limit.class)))
+				.thenAnswer(invocation -> {
+					int fromVersion = invocation.getArgument(2);
+					Limit limit = invocation.getArgument(3);
+					List<FeatureValueVersionView> rows = new ArrayList<>();
+					for (int version = Math.min(fromVersion, VALUES.length); version >= 1 && rows.size() < limit.max(); version--) {
+						rows.add(new VersionRow(version, VALUES[version - 1], updatedAt(version)));
+					}
+					return rows;
+				});
+	}
+
+	@Test
+	void pagesJoinUpToTheUnpagedHistory() {
+		List<FeatureValueHistoryResponse> paged = new ArrayList<>();
+		List<Integer> cursors = new ArrayList<>();
+		Integer before = null;
+		do {
+			FeatureValueHistoryPageResponse page = productService.getFeatureValueHistoryPage(workspace, PRODUCT_ID, FEATURE_ID, 3, before);
+			assertThat(page.versions()).hasSizeLessThanOrEqualTo(3);
+			paged.addAll(page.versions());
+			before = page.nextBeforeVersion();
+			cursors.add(before);
+		} while (before != null);
+
+		assertThat(cursors).containsExactly(5, 2, null);
+		assertThat(paged).containsExactlyElementsOf(productService.getFeatureValueHistory(workspace, PRODUCT_ID, FEATURE_ID));
+	}
+
+	@Test
+	void lastFullPageHasNoCursor() {
+		FeatureValueHistoryPageResponse page = productService.getFeatureValueHistoryPage(workspace, PRODUCT_ID, FEATURE_ID, 2, 3);
+
+		assertThat(page.versions()).extracting(FeatureValueHistoryResponse::version).containsExactly(2, 1);
+		assertThat(page.versions().get(0).changed()).isFalse();
+		assertThat(page.versions().get(1).trend()).isEqualTo("down");
+		assertThat(page.nextBeforeVersion()).isNull();
+	}
+
+	private static LocalDateTime updatedAt(int version) {
+		return LocalDateTime.of(2026, 1, 1, 0, 0).plusHours(version);
+	}
+
+	private record VersionRow(int version, String value, LocalDateTime updatedAt) implements FeatureValueVersionView {
+
+		@Override
+		public Long getProductId() {
+			return PRODUCT_ID;
+		}
+
+		@Override
+		public Long getFeatureId() {
+			return FEATURE_ID;
+		}
+
+		@Override
+		public String getValue() {
+			return value;
+		}
+
+		@Override
+		public int getVersion() {
+			return version;
+		}
+
+		@Override
+		public LocalDateTime getUpdatedAt() {
+			return updatedAt;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package com.productcompare.service;
+
+import com.productcompare.dto.CompareRecommendationResponse;
+import com.productcompare.entity.Feature;
+import com.productcompare.entity.LatestFeatureValue;
+import com.productcompare.entity.NumericParseStatus;
+import com.productcompare.entity.Product;
+import com.productcompare.entity.ProductBestPrice;
+import com.productcompare.entity.UserWorkspace;
+import com.productcompare.repository.CatalogBatchWriter;
+import com.productcompare.repository.FeatureRepository;
+import com.productcompare.repository.FeatureValueRepository;
+import com.productcompare.repository.LatestFeatureValueRepository;
+import com.productcompare.repository.ProductBestPriceRepository;
+import com.productcompare.repository.ProductRepository;
+import com.productcompare.repository.StorePriceRepository;
+import com.productcompare.repository.UserWorkspaceRepository;
+import com.productcompare.repository.WorkspaceChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class ProductServiceRecommendationTest {
+
+	private static final Long WORKSPACE_ID = 7L;
+
+	private ProductRepository productRepository;
+	private FeatureRepository featureRepository;
+	private StorePriceRepository storePriceRepository;
+	private LatestFeatureValueRepository latestFeatureValueRepository;
+	private ProductBestPriceRepository productBestPriceRepository;
+	private ProductService productService;
+	private UserWorkspace workspace;
+
+	@BeforeEach
+	void setUp() {
+		productRepository = mock(ProductRepository.class);
+		featureRepository = mock(FeatureRepository.class);
+		storePriceRepository = mock(StorePriceRepository.class);
+		latestFeatureValueRepository = mock(LatestFeatureValueRepository.class);
+		productBestPriceRepository = mock(ProductBestPriceRepository.class);
+		productService = new ProductService(
+				productRepository,
+				featureRepository,
+				mock(FeatureValueRepository.class),
+				storePriceRepository,
+				latestFeatureValueRepository,
+				mock(UserWorkspaceRepository.class),
+				new ComparisonMatrixCache(1_000_000, new SimpleMeterRegistry()),
+				mock(WorkspaceChangeRepository.class),
+				new ValueNormalizer(1_000),
+				new SimilarProductIndex(16, new SimpleMeterRegistry()),
+				productBestPriceRepository,
+				mock(CatalogBatchWriter.class),
+				mock(WorkspaceRevisionLog.class)
+		);
+		workspace = new UserWorkspace(WORKSPACE_ID, "demo", null, null);
+	}
+
+	@Test
+	void getRecommendationLoadsEverythingInFourQueries() {
+		Product phoneA = new Product(1L, "Phone A", workspace);
+		Product phoneB = new Product(2L, "Phone B", workspace);
+		List<Long> ids = List.of(1L, 2L);
+		when(productRepository.findByWorkspaceIdAndIdInOrderByNameAsc(WORKSPACE_ID, ids)).thenReturn(List.of(phoneA, phoneB));
+		when(featureRepository.findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID)).thenReturn(List.of(
+				new Feature(10L, "Battery", 1, workspace),
+				new Feature(11L, "RAM", 1, workspace)
+		));
+		when(latestFeatureValueRepository.findByProductIdIn(ids)).thenReturn(List.of(
+				numeric(1L, 10L, 4500),
+				numeric(2L, 10L, 5000),
+				numeric(1L, 11L, 8),
+				numeric(2L, 11L, 12)
+		));
+		when(productBestPriceRepository.findByProductIdIn(ids)).thenReturn(List.of(
+				bestPrice(1L, "Amazon", "499.00"),
+				bestPrice(2L, "Amazon", "549.00")
+		));
+
+		CompareRecommendationResponse recommendation = productService.getRecommendation(workspace, 1L, 2L);
+
+		assertThat(recommendation.getRecommendedProductId()).isEqualTo(2L);
+		assertThat(recommendation.getReason()).isEqualTo("Better RAM configuration and Higher battery capacity");
+		verify(productRepository).findByWorkspaceIdAndIdInOrderByNameAsc(WORKSPACE_ID, ids);
+		verify(featureRepository).findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID);
+		verify(latestFeatureValueRepository).findByProductIdIn(ids);
+		verify(productBestPriceRepository).findByProductIdIn(ids);
+		verifyNoMoreInteractions(productRepository, featureRepository, latestFeatureValueRepository, productBestPriceRepository);
+		verifyNoInteractions(storePriceRepository);
+	}
+
+	@Test
+	void getRecommendationRejectsProductsOutsideTheWorkspace() {
+		when(productRepository.findByWorkspaceIdAndIdInOrderByNameAsc(WORKSPACE_ID, List.of(1L, 2L)))
+				.thenReturn(List.of(new Product(1L, "Phone A", workspace)));
+
+		assertThatThrownBy(() -> productService.getRecommendation(workspace, 1L, 2L))
+				.isInstanceOf(ResponseStatusException.class)
+				.hasMessageContaining("Product not found");
+		verifyNoInteractions(featureRepository, latestFeatureValueRepository, productBestPriceRepository);
+	}
+
+	private static LatestFeatureValue numeric(Long productId, Long featureId, double value) {
+		LatestFeatureValue latest = new LatestFeatureValue(WORKSPACE_ID, productId, featureId);
+		latest.setValue(String.valueOf(value));
+		latest.setNumericValue(value);
+		latest.setNumericStatus(NumericParseStatus.PARSED);
+		return latest;
+	}
+
+	private static ProductBestPrice bestPrice(Long productId, String storeName, String price) {
+		ProductBestPrice bestPrice = new ProductBestPrice(productId, WORKSPACE_ID);
+		bestPrice.setStoreName(storeName);
+		bestPrice.setPrice(new BigDecimal(price));
+		bestPrice.setStoreCount(1);
+		return bestPrice;
+	}
+}
@@ -0,0 +1,167 @@
+package com.productcompare.service;
+
+import com.productcompare.dto.SkylineProductResponse;
+import com.productcompare.dto.SkylineResponse;
+import com.productcompare.entity.Feature;
+import com.productcompare.entity.Product;
+import com.productcompare.entity.UserWorkspace;
+import com.productcompare.repository.FeatureRepository;
+import com.productcompare.repository.LatestFeatureValueRepository;
+import com.productcompare.repository.NumericCellView;
+import com.productcompare.repository.ProductBestPriceRepository;
+import com.productcompare.repository.ProductPriceView;
+import com.productcompare.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSkylineServiceTest {
+
+	private static final Long WORKSPACE_ID = 7L;
+
+	private ProductRepository productRepository;
+	private FeatureRepository featureRepository;
+	private LatestFeatureValueRepository latestFeatureValueRepository;
+	private ProductBestPriceRepository productBestPriceRepository;
+	private ProductSkylineService skylineService;
+	private UserWorkspace workspace;
+
+	@BeforeEach
+	void setUp() {
+		productRepository = mock(ProductRepository.class);
+		featureRepository = mock(FeatureRepository.class);
+		latestFeatureValueRepository = mock(LatestFeatureValueRepository.class);
+		productBestPriceRepository = mock(ProductBestPriceRepository.class);
+		skylineService = new ProductSkylineService(
+				productRepository,
+				featureRepository,
+				latestFeatureValueRepository,
+				productBestPriceRepository
+		);
+		workspace = new UserWorkspace(WORKSPACE_ID, "demo", null, null);
+	}
+
+	@Test
+	void keepsOnlyProductsNoOtherProductBeatsOnEveryCriterion() {
+		when(productRepository.findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID)).thenReturn(List.of(
+				new Product(1L, "Phone A", workspace),
+				new Product(2L, "Phone B", workspace),
+				new Product(3L, "Phone C", workspace),
+				new Product(4L, "Phone D", workspace)
+		));
+		when(featureRepository.findByWorkspaceIdAndIdInOrderByNameAsc(eq(WORKSPACE_ID), eq(Set.of(10L))))
+				.thenReturn(List.of(new Feature(10L, "Battery", 1, workspace)));
+		when(latestFeatureValueRepository.findNumericCellsByWorkspaceIdAndFeatureIdIn(eq(WORKSPACE_ID), eq(Set.of(10L))))
+				.thenReturn(List.of(
+						new NumericCellView(1L, 10L, 5000, null),
+						new NumericCellView(2L, 10L, 4000, null),
+						new NumericCellView(3L, 10L, 4500, null),
+						new NumericCellView(4L, 10L, 6000, null)
+				));
+		when(productBestPriceRepository.findPricesByWorkspaceId(WORKSPACE_ID)).thenReturn(List.of(
+				new ProductPriceView(1L, new BigDecimal("500.00")),
+				new ProductPriceView(2L, new BigDecimal("400.00")),
+				new ProductPriceView(3L, new BigDecimal("550.00"))
+		));
+
+		SkylineResponse skyline = skylineService.getSkyline(workspace, List.of(10L), true);
+
+		// Phone C has less battery than A at a higher price; Phone D has no store price to compare.
+		assertThat(skyline.criteria()).containsExactly("Battery", ProductSkylineService.BEST_PRICE_CRITERION);
+		assertThat(skyline.products()).extracting(SkylineProductResponse::productId).containsExactly(1L, 2L);
+		assertThat(skyline.products().get(1).values()).containsExactly(4000.0, 400.0);
+		assertThat(skyline.comparedProducts()).isEqualTo(3);
+		assertThat(skyline.skippedProducts()).isEqualTo(1);
+	}
+
+	@Test
+	void matchesPairwiseDominanceOnRandomData() {
+		Random random = new Random(42);
+		int dimensions = 3;
+		int count = 2_000;
+		double[] values = new double[count * dimensions];
+		int[] candidates = new int[count];
+		for (int p = 0; p < count; p++) {
+			candidates[p] = p;
+			for (int d = 0; d < dimensions; d++) {
+				// Few distinct values so ties and duplicates are common.
+				values[p * dimensions + d] = random.nextInt(20);
+			}
+		}
+
+		int[] skyline = ProductSkylineService.skyline(values, dimensions, candidates, count);
+
+		Set<Integer> expected = new LinkedHashSet<>();
+		for (int p = 0; p < count; p++) {
+			boolean dominated = false;
+			for (int q = 0; q < count && !dominated; q++) {
+				boolean noWorse = true;
+				boolean better = false;
+				for (int d = 0; d < dimensions; d++) {
+					noWorse &= values[q * dimensions + d] >= values[p * dimensions + d];
+					better |= values[q * dimensions + d] > values[p * dimensions + d];
+				}
+				dominated = noWorse && better;
+			}
+			if (!dominated) {
+				expected.add(p);
+			}
+		}
+		assertThat(Arrays.stream(skyline).boxed().toList()).containsExactlyInAnyOrderElementsOf(expected);
+	}
+
+	@Test
+	void rejectsFeaturesOutsideTheWorkspace() {
+		when(featureRepository.findByWorkspaceIdAndIdInOrderByNameAsc(eq(WORKSPACE_ID), eq(Set.of(99L)))).thenReturn(List.of());
+
+		assertThatThrownBy(() -> skylineService.getSkyline(workspace, List.of(99L), false))
+				.isInstanceOf(ResponseStatusException.class)
+				.hasMessageContaining("Feature not found");
+	}
+
+	@Test
+	void treatsValuesOutsideTheDominantUnitAsMissing() {
+		when(productRepository.findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID)).thenReturn(List.of(
+				new Product(1L, "Phone A", workspace),
+				new Product(2L, "Phone B", workspace),
+				new Product(3L, "Phone C", workspace)
+		));
+		when(featureRepository.findByWorkspaceIdAndIdInOrderByNameAsc(eq(WORKSPACE_ID), eq(Set.of(10L))))
+				.thenReturn(List.of(new Feature(10L, "Battery", 1, workspace)));
+		when(latestFeatureValueRepository.findNumericCellsByWorkspaceIdAndFeatureIdIn(eq(WORKSPACE_ID), eq(Set.of(10L))))
+				.thenReturn(List.of(
+						new NumericCellView(1L, 10L, 5000, "mah"),
+						new NumericCellView(2L, 10L, 4000, "mah"),
+						new NumericCellView(3L, 10L, 9000, "h")
+				));
+
+		SkylineResponse skyline = skylineService.getSkyline(workspace, List.of(10L), false);
+
+		assertThat(skyline.products()).extracting(SkylineProductResponse::productId).containsExactly(1L);
+		assertThat(skyline.comparedProducts()).isEqualTo(2);
+		assertThat(skyline.skippedProducts()).isEqualTo(1);
+	}
+
+	@Test
+	void rejectsLinkAndCategoricalFeatures() {
+		when(featureRepository.findByWorkspaceIdAndIdInOrderByNameAsc(eq(WORKSPACE_ID), eq(Set.of(11L, 12L))))
+				.thenReturn(List.of(new Feature(11L, "Buy Link", 1, workspace), new Feature(12L, "Processor", 1, workspace)));
+
+		assertThatThrownBy(() -> skylineService.getSkyline(workspace, List.of(11L, 12L), false))
+				.isInstanceOf(ResponseStatusException.class)
+				.hasMessageContaining("is not numeric");
+	}
+}
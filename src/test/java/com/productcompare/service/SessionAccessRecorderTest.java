@@ -0,0 +1,65 @@
+package com.productcompare.service;
+
+import com.productcompare.repository.SessionAccessWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class SessionAccessRecorderTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+	private SessionAccessWriter writer;
+	private SessionAccessRecorder recorder;
+
+	@BeforeEach
+	void setUp() {
+		writer = mock(SessionAccessWriter.class);
+		recorder = new SessionAccessRecorder(writer, new SimpleMeterRegistry(), Duration.ofSeconds(60));
+	}
+
+	@Test
+	void coalescesAccessesPerTokenAndSkipsRecentlyStoredOnes() {
+		recorder.recordAccess("a", NOW.minusMinutes(5), NOW);
+		recorder.recordAccess("a", NOW.minusMinutes(5), NOW.plusSeconds(3));
+		recorder.recordAccess("a", NOW.minusMinutes(5), NOW.plusSeconds(1));
+		recorder.recordAccess("b", NOW.minusSeconds(30), NOW);
+		recorder.recordAccess("c", null, NOW);
+
+		recorder.flush();
+
+		verify(writer).updateLastAccess(Map.of("a", NOW.plusSeconds(3), "c", NOW));
+		assertThat(recorder.pendingCount()).isZero();
+	}
+
+	@Test
+	void keepsAccessesWhenTheFlushFailsAndDropsLoggedOutTokens() {
+		recorder.recordAccess("a", null, NOW);
+		recorder.recordAccess("b", null, NOW);
+		doThrow(new DataAccessResourceFailureException("down")).when(writer).updateLastAccess(any());
+
+		recorder.flush();
+		recorder.forget("b");
+
+		assertThat(recorder.pendingCount()).isEqualTo(1);
+	}
+
+	@Test
+	void flushWithNothingBufferedDoesNotTouchTheDatabase() {
+		recorder.flushOnShutdown();
+
+		verifyNoInteractions(writer);
+	}
+}
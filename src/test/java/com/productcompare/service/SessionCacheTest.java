@@ -0,0 +1,78 @@
+package com.productcompare.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionCacheTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+	private static final WorkspacePrincipal ALICE = new WorkspacePrincipal(1L, "alice");
+
+	private final AtomicLong clock = new AtomicLong();
+	private final List<String> broadcast = new ArrayList<>();
+	private SimpleMeterRegistry meterRegistry;
+	private SessionCache cache;
+
+	@BeforeEach
+	void setUp() {
+		StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+		beanFactory.addBean("broadcaster", (SessionInvalidationBroadcaster) broadcast::add);
+		meterRegistry = new SimpleMeterRegistry();
+		cache = new SessionCache(10, Duration.ofMinutes(5), meterRegistry,
+				beanFactory.getBeanProvider(SessionInvalidationBroadcaster.class), clock::get);
+	}
+
+	@Test
+	void servesLoadedSessionsUntilTheirTtlEnds() {
+		assertThat(cache.get("t")).isNull();
+		cache.put("t", ALICE, NOW);
+
+		clock.addAndGet(Duration.ofMinutes(4).toNanos());
+		SessionCache.CachedSession cached = cache.get("t");
+		clock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+		assertThat(cached.getPrincipal()).isEqualTo(ALICE);
+		assertThat(cached.getLastAccess()).isEqualTo(NOW);
+		assertThat(cache.get("t")).isNull();
+		assertThat(meterRegistry.counter("session.cache.requests", "result", "hit").count()).isEqualTo(1);
+		assertThat(meterRegistry.counter("session.cache.requests", "result", "miss").count()).isEqualTo(2);
+	}
+
+	@Test
+	void invalidatedTokenIsBroadcastAndNotCachedAgainByAnInFlightLoad() {
+		cache.put("t", ALICE, NOW);
+
+		cache.invalidate("t");
+
+		assertThat(broadcast).containsExactly("t");
+		assertThat(cache.get("t")).isNull();
+		assertThat(cache.put("t", ALICE, NOW)).isNull();
+
+		clock.addAndGet(Duration.ofMinutes(5).toNanos());
+		assertThat(cache.put("t", ALICE, NOW)).isNotNull();
+	}
+
+	@Test
+	void dropsTheOldestEntriesWhenFull() {
+		for (int i = 0; i < 11; i++) {
+			cache.put("t" + i, ALICE, NOW);
+			clock.incrementAndGet();
+		}
+
+		assertThat(cache.size()).isEqualTo(9);
+		assertThat(cache.get("t0")).isNull();
+		assertThat(cache.get("t1")).isNull();
+		assertThat(cache.get("t10")).isNotNull();
+		assertThat(meterRegistry.counter("session.cache.evictions").count()).isEqualTo(2);
+	}
+}
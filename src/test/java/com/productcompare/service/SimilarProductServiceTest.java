@@ -0,0 +1,142 @@
+package com.productcompare.service;
+
+import com.productcompare.dto.SimilarProductResponse;
+import com.productcompare.entity.Feature;
+import com.productcompare.entity.Product;
+import com.productcompare.entity.UserWorkspace;
+import com.productcompare.repository.FeatureRepository;
+import com.productcompare.repository.LatestFeatureValueRepository;
+import com.productcompare.repository.LatestValueView;
+import com.productcompare.repository.ProductRepository;
+import com.productcompare.repository.UserWorkspaceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SimilarProductServiceTest {
+
+	private static final Long WORKSPACE_ID = 7L;
+
+	private ProductRepository productRepository;
+	private LatestFeatureValueRepository latestFeatureValueRepository;
+	private UserWorkspaceRepository userWorkspaceRepository;
+	private SimilarProductIndex index;
+	private SimilarProductService similarProductService;
+	private UserWorkspace workspace;
+
+	@BeforeEach
+	void setUp() {
+		productRepository = mock(ProductRepository.class);
+		FeatureRepository featureRepository = mock(FeatureRepository.class);
+		latestFeatureValueRepository = mock(LatestFeatureValueRepository.class);
+		userWorkspaceRepository = mock(UserWorkspaceRepository.class);
+		index = new SimilarProductIndex(16, new SimpleMeterRegistry());
+		similarProductService = new SimilarProductService(
+				productRepository,
+				featureRepository,
+				latestFeatureValueRepository,
+				userWorkspaceRepository,
+				index
+		);
+		workspace = new UserWorkspace(WORKSPACE_ID, "demo", null, null);
+
+		Product phoneA = new Product(1L, "Phone A", workspace);
+		phoneA.setCategory("Phone");
+		Product phoneB = new Product(2L, "Phone B", workspace);
+		phoneB.setCategory("Phone");
+		Product tablet = new Product(3L, "Tablet", workspace);
+		tablet.setCategory("Tablet");
+		when(productRepository.findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID)).thenReturn(List.of(phoneA, phoneB, tablet));
+		when(featureRepository.findByWorkspaceIdOrderByNameAsc(WORKSPACE_ID)).thenReturn(List.of(
+				new Feature(10L, "RAM", 1, workspace),
+				new Feature(11L, "Operating System", 1, workspace),
+				new Feature(12L, "Purchase Link", 1, workspace)
+		));
+		when(latestFeatureValueRepository.findValuesByWorkspaceId(WORKSPACE_ID)).thenReturn(List.of(
+				new LatestValueView(1L, 10L, "8 GB", 8.0),
+				new LatestValueView(2L, 10L, "12 GB", 12.0),
+				new LatestValueView(3L, 10L, "4 GB", 4.0),
+				new LatestValueView(1L, 11L, "Android 14", null),
+				new LatestValueView(2L, 11L, "android 14", null),
+				new LatestValueView(3L, 11L, "iPadOS", null),
+				new LatestValueView(1L, 12L, "https://example.com/1", 1.0)
+		));
+		when(userWorkspaceRepository.findRevisionById(WORKSPACE_ID)).thenReturn(Optional.of(3L));
+	}
+
+	@Test
+	void ranksByNumericDistanceAndSharedAttributes() {
+		List<SimilarProductResponse> similar = similarProductService.getSimilarProducts(workspace, 1L, null);
+
+		assertThat(similar).extracting(SimilarProductResponse::productId).containsExactly(2L, 3L);
+		// RAM differs by half the range, category and operating system match.
+		assertThat(similar.get(0).similarity()).isCloseTo(1 - 0.5 / 3, within(1e-9));
+		assertThat(similar.get(1).similarity()).isCloseTo(1 - 2.5 / 3, within(1e-9));
+	}
+
+	@Test
+	void followsCommittedWritesWithoutReloading() {
+		similarProductService.getSimilarProducts(workspace, 1L, null);
+
+		index.recordProduct(WORKSPACE_ID, 3L, "Tablet", "Phone");
+		index.recordValue(WORKSPACE_ID, 3L, 10L, "RAM", "8 GB", 8.0);
+		index.recordValue(WORKSPACE_ID, 3L, 11L, "Operating System", "Android 14", null);
+		index.recordRevision(WORKSPACE_ID, 4L);
+		when(userWorkspaceRepository.findRevisionById(WORKSPACE_ID)).thenReturn(Optional.of(4L));
+
+		List<SimilarProductResponse> similar = similarProductService.getSimilarProducts(workspace, 1L, 1);
+
+		assertThat(similar).extracting(SimilarProductResponse::productId).containsExactly(3L);
+		assertThat(similar.get(0).similarity()).isEqualTo(1.0);
+		verify(latestFeatureValueRepository, times(1)).findValuesByWorkspaceId(WORKSPACE_ID);
+	}
+
+	@Test
+	void rebuildsWhenARevisionWasMissed() {
+		similarProductService.getSimilarProducts(workspace, 1L, null);
+
+		index.recordRevision(WORKSPACE_ID, 5L);
+		when(userWorkspaceRepository.findRevisionById(WORKSPACE_ID)).thenReturn(Optional.of(5L));
+		similarProductService.getSimilarProducts(workspace, 1L, null);
+
+		verify(latestFeatureValueRepository, times(2)).findValuesByWorkspaceId(WORKSPACE_ID);
+	}
+
+	@Test
+	void doesNotPromoteVectorsLoadedBeforeAWriteThatFoundNoEntry() {
+		List<LatestValueView> values = latestFeatureValueRepository.findValuesByWorkspaceId(WORKSPACE_ID);
+		clearInvocations(latestFeatureValueRepository);
+		when(latestFeatureValueRepository.findValuesByWorkspaceId(WORKSPACE_ID)).thenAnswer(invocation -> {
+			// A write commits while the vectors are loaded; the index has no entry to apply it to yet.
+			index.recordValue(WORKSPACE_ID, 3L, 10L, "RAM", "8 GB", 8.0);
+			return values;
+		});
+		similarProductService.getSimilarProducts(workspace, 1L, null);
+
+		index.recordRevision(WORKSPACE_ID, 4L);
+		when(userWorkspaceRepository.findRevisionById(WORKSPACE_ID)).thenReturn(Optional.of(4L));
+		similarProductService.getSimilarProducts(workspace, 1L, null);
+
+		verify(latestFeatureValueRepository, times(2)).findValuesByWorkspaceId(WORKSPACE_ID);
+	}
+
+	@Test
+	void rejectsUnknownProducts() {
+		assertThatThrownBy(() -> similarProductService.getSimilarProducts(workspace, 99L, null))
+				.isInstanceOf(ResponseStatusException.class)
+				.hasMessageContaining("Product not found");
+	}
+}
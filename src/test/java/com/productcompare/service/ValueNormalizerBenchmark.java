@@ -0,0 +1,91 @@
+package com.productcompare.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the regex-based number extraction that recommendation used to run per request with the
+ * {@link ValueNormalizer} scanner, both uncached and through its cache. Not part of the test suite; run with
+ * {@code mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt} and then
+ * {@code java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.productcompare.service.ValueNormalizerBenchmark},
+ * adding {@code -prof gc} to the JMH arguments to see allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueNormalizerBenchmark {
+
+	private static final String[] VALUES = {
+			"8 GB", "12 GB", "1 TB", "4500 mAh", "5000mAh", "6.7 inch", "6.1\"", "$1,299", "Android 14", "Yes"
+	};
+
+	private ValueNormalizer normalizer;
+
+	@Setup
+	public void setUp() {
+		normalizer = new ValueNormalizer(1_000);
+	}
+
+	@Benchmark
+	public void legacyExtractNumber(Blackhole blackhole) {
+		for (String value : VALUES) {
+			blackhole.consume(legacyExtractNumber(value));
+		}
+	}
+
+	@Benchmark
+	public void scanUncached(Blackhole blackhole) {
+		for (String value : VALUES) {
+			blackhole.consume(ValueNormalizer.scan(value));
+		}
+	}
+
+	@Benchmark
+	public void normalizeCached(Blackhole blackhole) {
+		for (String value : VALUES) {
+			blackhole.consume(normalizer.normalize(value));
+		}
+	}
+
+	/**
+	 * The extraction ProductService ran before values were parsed at write time, kept verbatim as the baseline.
+	 */
+	private static Double legacyExtractNumber(String rawValue) {
+		if (rawValue == null) {
+			return null;
+		}
+		String cleaned = rawValue.replaceAll("[^0-9.]", " ").trim();
+		if (cleaned.isEmpty()) {
+			return null;
+		}
+		String firstToken = cleaned.split("\\\\s+")[0];
+		try {
+			return Double.parseDouble(firstToken);
+		} catch (NumberFormatException ignored) {
+			return null;
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(ValueNormalizerBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,63 @@
+package com.productcompare.service;
+
+import com.productcompare.entity.NumericParseStatus;
+import com.productcompare.service.ValueNormalizer.Dimension;
+import com.productcompare.service.ValueNormalizer.NormalizedValue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ValueNormalizerTest {
+
+	private final ValueNormalizer normalizer = new ValueNormalizer(100);
+
+	@ParameterizedTest
+	@CsvSource(delimiter = '|', value = {
+			"8 GB|8589934592|BYTES",
+			"1 TB|1099511627776|BYTES",
+			"512MB RAM|536870912|BYTES",
+			"4500 mAh|4500|CHARGE",
+			"5 Ah|5000|CHARGE",
+			"6.7 inch|6.7|LENGTH",
+			"6.1\"|6.1|LENGTH",
+			"15.24 cm|6|LENGTH",
+			"$1,299|129900|CURRENCY",
+			"₹ 24,999.50|2499950|CURRENCY",
+			"799 USD|79900|CURRENCY",
+			"Android 14|14|NUMBER"
+	})
+	void convertsToCanonicalUnits(String raw, double amount, Dimension dimension) {
+		NormalizedValue value = normalizer.normalize(raw);
+
+		assertThat(value.dimension()).isEqualTo(dimension);
+		assertThat(value.amount()).isCloseTo(amount, within(1e-6));
+		assertThat(value.status()).isEqualTo(NumericParseStatus.NORMALIZED);
+	}
+
+	@Test
+	void keepsUnknownUnitsAndOnlyComparesLikeWithLike() {
+		NormalizedValue camera = normalizer.normalize("48 MP");
+		NormalizedValue refresh = normalizer.normalize("120 Hz");
+
+		assertThat(camera.unit()).isEqualTo("MP");
+		assertThat(camera.isComparableTo(normalizer.normalize("64MP"))).isTrue();
+		assertThat(camera.isComparableTo(refresh)).isFalse();
+		assertThat(normalizer.normalize("1 TB").isComparableTo(normalizer.normalize("512 GB"))).isTrue();
+	}
+
+	@Test
+	void ignoresTheEncodedStorePrice() {
+		assertThat(normalizer.normalize("Yes").status()).isEqualTo(NumericParseStatus.NOT_NUMERIC);
+		assertThat(normalizer.normalize("Yes ||price|| 499").numericValue()).isNull();
+		assertThat(normalizer.normalize("12 GB ||price|| 499").amount()).isEqualTo(12d * 1024 * 1024 * 1024);
+		assertThat(normalizer.normalize(null).isNumeric()).isFalse();
+	}
+
+	@Test
+	void servesRepeatedValuesFromTheCache() {
+		assertThat(normalizer.normalize(new String("8 GB"))).isSameAs(normalizer.normalize("8 GB"));
+	}
+}
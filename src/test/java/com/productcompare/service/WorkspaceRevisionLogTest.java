@@ -0,0 +1,134 @@
+package com.productcompare.service;
+
+import com.productcompare.entity.Feature;
+import com.productcompare.entity.PendingWorkspaceChange;
+import com.productcompare.entity.Product;
+import com.productcompare.entity.WorkspaceChange;
+import com.productcompare.entity.WorkspaceChangeType;
+import com.productcompare.repository.PendingWorkspaceChangeRepository;
+import com.productcompare.repository.UserWorkspaceRepository;
+import com.productcompare.repository.WorkspaceChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class WorkspaceRevisionLogTest {
+
+	private static final Long WORKSPACE_ID = 7L;
+
+	private UserWorkspaceRepository userWorkspaceRepository;
+	private WorkspaceChangeRepository workspaceChangeRepository;
+	private PendingWorkspaceChangeRepository pendingWorkspaceChangeRepository;
+	private ComparisonMatrixCache comparisonMatrixCache;
+	private WorkspaceRevisionLog revisionLog;
+
+	@BeforeEach
+	void setUp() {
+		userWorkspaceRepository = mock(UserWorkspaceRepository.class);
+		workspaceChangeRepository = mock(WorkspaceChangeRepository.class);
+		pendingWorkspaceChangeRepository = mock(PendingWorkspaceChangeRepository.class);
+		comparisonMatrixCache = new ComparisonMatrixCache(1_000, new SimpleMeterRegistry());
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+		revisionLog = new WorkspaceRevisionLog(
+				userWorkspaceRepository,
+				workspaceChangeRepository,
+				pendingWorkspaceChangeRepository,
+				comparisonMatrixCache,
+				new SimilarProductIndex(16, new SimpleMeterRegistry()),
+				transactionManager
+		);
+		when(pendingWorkspaceChangeRepository.saveAll(anyList())).thenAnswer(invocation -> {
+			List<PendingWorkspaceChange> saved = invocation.getArgument(0);
+			for (int i = 0; i < saved.size(); i++) {
+				saved.get(i).setId(100L + i);
+			}
+			return saved;
+		});
+		TransactionSynchronizationManager.initSynchronization();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void queuesChangesWithTheWriteAndGivesThemARevisionOnceItCommits() {
+		revisionLog.record(WORKSPACE_ID, List.of(new WorkspaceChange(WORKSPACE_ID, WorkspaceChangeType.CELL, 1L, 10L)));
+		ArgumentCaptor<List<PendingWorkspaceChange>> queued = ArgumentCaptor.forClass(List.class);
+		verify(pendingWorkspaceChangeRepository).saveAll(queued.capture());
+		verifyNoInteractions(userWorkspaceRepository, workspaceChangeRepository);
+
+		when(userWorkspaceRepository.incrementRevision(WORKSPACE_ID)).thenReturn(1);
+		when(userWorkspaceRepository.findRevisionById(WORKSPACE_ID)).thenReturn(Optional.of(200L));
+		when(pendingWorkspaceChangeRepository.findByWorkspaceIdOrderByIdAsc(WORKSPACE_ID, Limit.of(1000)))
+				.thenReturn(queued.getValue())
+				.thenReturn(List.of());
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+		ArgumentCaptor<List<WorkspaceChange>> logged = ArgumentCaptor.forClass(List.class);
+		verify(workspaceChangeRepository).saveAll(logged.capture());
+		assertThat(logged.getValue()).extracting(WorkspaceChange::getRevision, WorkspaceChange::getProductId)
+				.containsExactly(tuple(200L, 1L));
+		verify(pendingWorkspaceChangeRepository).deleteAllInBatch(queued.getValue());
+		verify(workspaceChangeRepository).deleteUpToRevision(WORKSPACE_ID, 200L - 1000);
+	}
+
+	@Test
+	void keepsChangesQueuedAndDropsCachedMatricesWhenTheRelayFails() {
+		comparisonMatrixCache.put(WORKSPACE_ID, 4, ComparisonMatrix.builder(
+				List.of(new Product(1L, "Phone A", null)),
+				List.of(new Feature(10L, "RAM", 1, null))
+		).build());
+		when(userWorkspaceRepository.incrementRevision(WORKSPACE_ID)).thenThrow(new CannotAcquireLockException("timeout"));
+
+		revisionLog.record(WORKSPACE_ID, List.of(new WorkspaceChange(WORKSPACE_ID, WorkspaceChangeType.CELL, 1L, 10L)));
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+		assertThat(comparisonMatrixCache.size()).isZero();
+		verify(pendingWorkspaceChangeRepository, never()).deleteAllInBatch(anyList());
+		verifyNoInteractions(workspaceChangeRepository);
+	}
+
+	@Test
+	void sweepRelaysChangesLeftInTheOutbox() {
+		PendingWorkspaceChange left = new PendingWorkspaceChange(
+				new WorkspaceChange(WORKSPACE_ID, WorkspaceChangeType.PRODUCT, 1L, null), LocalDateTime.of(2026, 3, 1, 12, 0));
+		left.setId(5L);
+		when(pendingWorkspaceChangeRepository.findWorkspaceIds()).thenReturn(List.of(WORKSPACE_ID));
+		when(userWorkspaceRepository.incrementRevision(WORKSPACE_ID)).thenReturn(1);
+		when(userWorkspaceRepository.findRevisionById(WORKSPACE_ID)).thenReturn(Optional.of(9L));
+		when(pendingWorkspaceChangeRepository.findByWorkspaceIdOrderByIdAsc(WORKSPACE_ID, Limit.of(1000)))
+				.thenReturn(List.of(left))
+				.thenReturn(List.of());
+
+		revisionLog.relayPending();
+
+		verify(workspaceChangeRepository).saveAll(anyList());
+		verify(pendingWorkspaceChangeRepository).deleteAllInBatch(List.of(left));
+	}
+}